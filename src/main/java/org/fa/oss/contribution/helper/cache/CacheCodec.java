@@ -0,0 +1,76 @@
+package org.fa.oss.contribution.helper.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Encoding of a {@link JsonFileCache} file. Every binary format starts with a header of its own, so
+ * a file is decoded by what it starts with and not by the codec currently configured: files written
+ * before a codec change, including all plain JSON files, keep loading.
+ */
+public enum CacheCodec {
+  /** Indented JSON, the original format. */
+  PRETTY_JSON(new byte[0]),
+  JSON(new byte[0]),
+  /** Binary JSON; written with its {@code :)\n} header. */
+  SMILE(new byte[] {':', ')', '\n'}),
+  /** CBOR, written with the self-describe tag 55799. */
+  CBOR(new byte[] {(byte) 0xD9, (byte) 0xD9, (byte) 0xF7});
+
+  private static final byte[] GZIP_MAGIC = {(byte) 0x1F, (byte) 0x8B};
+  private static final int HEADER_LENGTH = 3;
+
+  private final byte[] header;
+
+  CacheCodec(byte[] header) {
+    this.header = header;
+  }
+
+  /** A mapper for this codec configured like {@code json}. */
+  ObjectMapper mapper(ObjectMapper json) {
+    return switch (this) {
+      case PRETTY_JSON, JSON -> json;
+      case SMILE -> json.copyWith(new SmileFactory());
+      case CBOR -> json.copyWith(
+          CBORFactory.builder().enable(CBORGenerator.Feature.WRITE_TYPE_HEADER).build());
+    };
+  }
+
+  ObjectWriter writer(ObjectMapper mapper) {
+    return this == PRETTY_JSON ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+  }
+
+  /** A stream over the content of a cache file, decompressed if it was gzipped. */
+  static InputStream decompressed(InputStream in) throws IOException {
+    InputStream buffered = new BufferedInputStream(in, 64 * 1024);
+    if (startsWith(buffered, GZIP_MAGIC)) {
+      return new BufferedInputStream(new GZIPInputStream(buffered, 64 * 1024), 64 * 1024);
+    }
+    return buffered;
+  }
+
+  /** The codec {@code in} was written with; {@code in} must support mark and stays unread. */
+  static CacheCodec detect(InputStream in) throws IOException {
+    for (CacheCodec codec : new CacheCodec[] {SMILE, CBOR}) {
+      if (startsWith(in, codec.header)) {
+        return codec;
+      }
+    }
+    return JSON;
+  }
+
+  private static boolean startsWith(InputStream in, byte[] prefix) throws IOException {
+    in.mark(HEADER_LENGTH);
+    byte[] read = in.readNBytes(prefix.length);
+    in.reset();
+    return Arrays.equals(read, prefix);
+  }
+}
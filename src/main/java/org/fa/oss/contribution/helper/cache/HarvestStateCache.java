@@ -0,0 +1,17 @@
+package org.fa.oss.contribution.helper.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.fa.oss.contribution.helper.model.HarvestState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/** When issues were last harvested, so the next run only asks for what changed since. */
+@Component
+public class HarvestStateCache extends JsonFileCache<HarvestState> {
+  @Autowired
+  public HarvestStateCache(ObjectMapper mapper, CacheProperties props) {
+    super(mapper, props, "harvest-state.json", new TypeReference<HarvestState>() {});
+  }
+}
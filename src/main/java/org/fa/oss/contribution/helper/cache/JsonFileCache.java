@@ -2,19 +2,50 @@ package org.fa.oss.contribution.helper.cache;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.fa.oss.contribution.helper.config.CacheProperties;
 
+/**
+ * A value kept as a JSON file. {@link #load()} reads through an in-memory snapshot of the decoded
+ * value, which is dropped on {@link #save}, when the file's modification time or size changes, or
+ * once it is older than {@code maxAgeMillis}. Snapshots are shared by all callers: top-level lists
+ * and maps are handed out unmodifiable, and callers must not change the values in them.
+ *
+ * <p>Files are written in the {@link CacheCodec} and compression set for the cache under {@code
+ * cache.formats}, and read in whichever format their header shows.
+ *
+ * <p>A cache that declares a {@link RecordLayout} can instead be kept in a {@link
+ * SegmentedRecordStore} by setting {@code record-store} in its format: a save then appends only the
+ * records that changed, and the file is only written by {@link #export()}.
+ */
 @Slf4j
 public abstract class JsonFileCache<T> implements CacheService<T> {
 
   private static final long DEFAULT_MAX_AGE_MILLIS = 120 * 60 * 1000; // 120 minutes
-  private final ObjectMapper mapper;
+  private final Map<CacheCodec, ObjectMapper> mappers = new EnumMap<>(CacheCodec.class);
+  private final CacheProperties properties;
+  private final String name;
+  private final CacheProperties.Format format;
   private final File file;
   private String filePath;
   private final TypeReference<T> typeRef;
@@ -23,6 +54,20 @@ public abstract class JsonFileCache<T> implements CacheService<T> {
 
   protected boolean firstLoadDone = false;
 
+  /** A decoded file and the file attributes it was decoded from. */
+  private record Snapshot<T>(
+      T value, long generation, long lastModified, long size, long decodedAtMillis) {}
+
+  /** What a snapshot is decoded from: the file's attributes, or the record store's version. */
+  private record Source(long lastModified, long size) {}
+
+  private volatile Snapshot<T> snapshot;
+  private final AtomicLong generations = new AtomicLong();
+  private final Object decodeLock = new Object();
+
+  private RecordBackend<?> records;
+  private long exportedVersion = -1;
+
   public JsonFileCache(
       ObjectMapper mapper,
       CacheProperties properties,
@@ -32,8 +77,13 @@ public abstract class JsonFileCache<T> implements CacheService<T> {
     String baseDir = properties.getBaseDir();
     this.file = new File(baseDir, fileName);
     this.typeRef = typeRef;
-    this.mapper = mapper;
     this.maxAgeMillis = maxAgeMillis;
+    this.properties = properties;
+    this.name = fileName.substring(0, fileName.lastIndexOf('.'));
+    this.format = properties.getFormats().getOrDefault(name, new CacheProperties.Format());
+    for (CacheCodec codec : CacheCodec.values()) {
+      mappers.put(codec, codec.mapper(mapper));
+    }
 
     this.file.getParentFile().mkdirs();
     this.filePath = this.file.getPath();
@@ -52,24 +102,218 @@ public abstract class JsonFileCache<T> implements CacheService<T> {
     this.maxAgeMillis = maxAgeMillis;
   }
 
+  /** The cache file. With a record store it is only as recent as the last {@link #export()}. */
   public File getFile() {
     return file;
   }
 
+  /**
+   * Keeps this cache in a record store laid out by {@code layout} when its format asks for one;
+   * called from the constructor of the subclass.
+   */
+  protected <V> void storeRecords(RecordLayout<T, V> layout) {
+    if (!format.isRecordStore()) {
+      return;
+    }
+    records =
+        new RecordBackend<>(
+            layout,
+            new SegmentedRecordStore<>(
+                file.toPath().resolveSibling(name + "-records"),
+                mappers.get(CacheCodec.JSON),
+                layout.recordType(),
+                properties.getRecordStore()));
+  }
+
+  /** Whether this cache is kept in a record store rather than in its file. */
+  boolean storesRecords() {
+    return records != null;
+  }
+
   @Override
   public T load() {
-    if (file.exists()) {
+    Source source = source();
+    if (source == null) {
+      return null;
+    }
+    long lastModified = source.lastModified();
+    long size = source.size();
+
+    Snapshot<T> current = snapshot;
+    if (isCurrent(current, lastModified, size)) {
+      return current.value();
+    }
+    synchronized (decodeLock) {
+      current = snapshot;
+      if (isCurrent(current, lastModified, size)) {
+        return current.value();
+      }
       try {
         firstLoadDone = true;
-        return mapper.readValue(file, typeRef);
+        long startNanos = System.nanoTime();
+        T value = unmodifiable(read());
+        current =
+            new Snapshot<>(
+                value,
+                generations.incrementAndGet(),
+                lastModified,
+                size,
+                System.currentTimeMillis());
+        snapshot = current;
+        log.debug(
+            "Decoded {} ({} bytes) as generation {} in {} ms",
+            file.getName(),
+            size,
+            current.generation(),
+            (System.nanoTime() - startNanos) / 1_000_000);
+        return value;
       } catch (IOException e) {
         throw new RuntimeException("Failed to load cache from " + file.getAbsolutePath(), e);
       }
     }
-    return null;
+  }
+
+  private T read() throws IOException {
+    if (records != null) {
+      return records.read();
+    }
+    return read(file.toPath());
+  }
+
+  private T read(Path path) throws IOException {
+    try (InputStream in = open(path)) {
+      return mapperFor(in).readValue(in, typeRef);
+    }
+  }
+
+  /** The in-memory snapshot if it is still current, else null; never decodes. */
+  T currentValue() {
+    Source source = source();
+    Snapshot<T> current = snapshot;
+    return source != null && isCurrent(current, source.lastModified(), source.size())
+        ? current.value()
+        : null;
+  }
+
+  /** The file, decompressed if it was gzipped. */
+  InputStream open() throws IOException {
+    return open(file.toPath());
+  }
+
+  private static InputStream open(Path path) throws IOException {
+    return CacheCodec.decompressed(Files.newInputStream(path));
+  }
+
+  /** Mapper for the codec {@code in}, as returned by {@link #open()}, was written with. */
+  ObjectMapper mapperFor(InputStream in) throws IOException {
+    return mappers.get(CacheCodec.detect(in));
+  }
+
+  /** Writer for the codec configured for this cache. */
+  ObjectWriter objectWriter() {
+    return format.getCodec().writer(mappers.get(format.getCodec()));
+  }
+
+  /** {@code out}, compressed if this cache is configured to be. */
+  OutputStream compressed(OutputStream out) throws IOException {
+    return format.isGzip() ? new GZIPOutputStream(out, 64 * 1024) : out;
+  }
+
+  /** Null when nothing has been saved. */
+  private Source source() {
+    if (records != null) {
+      return records.source();
+    }
+    BasicFileAttributes attributes = attributes();
+    return attributes == null
+        ? null
+        : new Source(attributes.lastModifiedTime().toMillis(), attributes.size());
+  }
+
+  /** When the cache was last saved, or -1 when it never was. */
+  private long lastSavedMillis() {
+    if (records != null) {
+      return records.source() == null ? -1 : records.store.lastWriteMillis();
+    }
+    return file.exists() ? file.lastModified() : -1;
+  }
+
+  private BasicFileAttributes attributes() {
+    try {
+      return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      snapshot = null;
+      return null;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to load cache from " + file.getAbsolutePath(), e);
+    }
+  }
+
+  /**
+   * Generation of the snapshot the last {@link #load()} returned; it changes whenever the file is
+   * decoded again. 0 before the first load.
+   */
+  public long getGeneration() {
+    Snapshot<T> current = snapshot;
+    return current == null ? 0 : current.generation();
+  }
+
+  private boolean isCurrent(Snapshot<T> current, long lastModified, long size) {
+    return current != null
+        && current.lastModified() == lastModified
+        && current.size() == size
+        && System.currentTimeMillis() - current.decodedAtMillis() <= maxAgeMillis;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T unmodifiable(T value) {
+    if (value instanceof List<?> list) {
+      return (T) Collections.unmodifiableList(list);
+    }
+    if (value instanceof Map<?, ?> map) {
+      return (T) Collections.unmodifiableMap(map);
+    }
+    return value;
   }
 
   public synchronized void save(T data) {
+    snapshot = null;
+    if (records != null) {
+      records.write(data);
+    } else {
+      write(data);
+    }
+    // A load racing with this save may have decoded the old value after the reset above
+    snapshot = null;
+  }
+
+  /**
+   * Writes the cache file from the record store unless it already holds the latest save. Code that
+   * reads {@link #getFile()} directly calls this first; without a record store the file is always
+   * current and this does nothing.
+   */
+  public synchronized void export() {
+    if (records == null) {
+      return;
+    }
+    long version = records.store.version();
+    if (version == exportedVersion && file.exists()) {
+      return;
+    }
+    T value = load();
+    if (value == null) {
+      return;
+    }
+    long startNanos = System.nanoTime();
+    write(value);
+    exportedVersion = version;
+    log.info(
+        "Exported {} from its record store in {} ms",
+        file.getName(),
+        (System.nanoTime() - startNanos) / 1_000_000);
+  }
+
+  private void write(T data) {
     file.getParentFile().mkdirs();
 
     File tmpFile = new File(file.getAbsolutePath() + ".tmp");
@@ -83,7 +327,7 @@ public abstract class JsonFileCache<T> implements CacheService<T> {
 
       lock = channel.lock();
 
-      mapper.writerWithDefaultPrettyPrinter().writeValue(fos, data);
+      objectWriter().writeValue(compressed(fos), data);
       fos.flush();
 
     } catch (IOException e) {
@@ -104,13 +348,13 @@ public abstract class JsonFileCache<T> implements CacheService<T> {
 
   @Override
   public boolean isCacheValid() {
-    if (!file.exists()) return false;
+    long lastModified = lastSavedMillis();
+    if (lastModified < 0) return false;
 
     if (!firstLoadDone) {
       return true;
     }
 
-    long lastModified = file.lastModified();
     long age = System.currentTimeMillis() - lastModified;
 
     return age <= maxAgeMillis;
@@ -118,11 +362,58 @@ public abstract class JsonFileCache<T> implements CacheService<T> {
 
   @Override
   public long getCacheAgeMillis() {
-    if (!file.exists()) return -1;
-    return System.currentTimeMillis() - file.lastModified();
+    long lastModified = lastSavedMillis();
+    if (lastModified < 0) return -1;
+    return System.currentTimeMillis() - lastModified;
   }
 
   public String filePath() {
     return filePath;
   }
+
+  @PreDestroy
+  public void close() {
+    if (records != null) {
+      records.store.close();
+    }
+  }
+
+  /** A record store and the layout of the cached value in it. */
+  private final class RecordBackend<V> {
+    private final RecordLayout<T, V> layout;
+    private final SegmentedRecordStore<V> store;
+
+    private RecordBackend(RecordLayout<T, V> layout, SegmentedRecordStore<V> store) {
+      this.layout = layout;
+      this.store = store;
+    }
+
+    /** Null until the first save; the version stands in for the file size. */
+    Source source() {
+      return store.lastWriteMillis() == 0 ? null : new Source(0, store.version());
+    }
+
+    T read() {
+      List<V> values = store.values();
+      values.sort(layout.order());
+      return layout.value().apply(values);
+    }
+
+    void write(T data) {
+      Map<Long, V> byKey = new LinkedHashMap<>();
+      int unkeyed = 0;
+      for (V record : layout.records().apply(data)) {
+        Long key = layout.key().apply(record);
+        if (key == null) {
+          unkeyed++;
+        } else {
+          byKey.put(key, record);
+        }
+      }
+      if (unkeyed > 0) {
+        log.warn("Skipped {} records without a key when saving {}", unkeyed, file.getName());
+      }
+      store.replaceAll(byKey);
+    }
+  }
 }
@@ -0,0 +1,83 @@
+package org.fa.oss.contribution.helper.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+
+/**
+ * A cache holding a list, which can also be read one element at a time: {@link #stream()} parses
+ * elements as they are consumed, so a reader that stops early never decodes the rest of the file. A
+ * reader that consumes every element still ends up holding them all, as with {@link #load()}.
+ */
+@Slf4j
+public abstract class JsonListFileCache<E> extends JsonFileCache<List<E>> {
+
+  private final Class<E> elementType;
+
+  public JsonListFileCache(
+      ObjectMapper mapper,
+      CacheProperties properties,
+      String fileName,
+      TypeReference<List<E>> typeRef,
+      Class<E> elementType) {
+    super(mapper, properties, fileName, typeRef);
+    this.elementType = elementType;
+  }
+
+  /**
+   * The cached elements, parsed one at a time as the stream is consumed; whatever the stream does
+   * not reach, for example past a {@code limit}, is never parsed. Served from the in-memory
+   * snapshot when {@link #load()} has already decoded the current file. Empty when there is no
+   * file. The stream holds the file open until it is closed. A cache kept in a record store is
+   * loaded whole instead.
+   */
+  public Stream<E> stream() {
+    if (storesRecords()) {
+      List<E> all = load();
+      return all == null ? Stream.empty() : all.stream();
+    }
+    List<E> current = currentValue();
+    if (current != null) {
+      return current.stream();
+    }
+    InputStream in;
+    try {
+      in = open();
+    } catch (NoSuchFileException e) {
+      return Stream.empty();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open cache " + getFile().getAbsolutePath(), e);
+    }
+    try {
+      MappingIterator<E> elements = mapperFor(in).readerFor(elementType).readValues(in);
+      return StreamSupport.stream(
+              Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED), false)
+          .onClose(
+              () -> {
+                try {
+                  elements.close();
+                } catch (IOException e) {
+                  log.warn("Failed to close cache {}", getFile().getAbsolutePath(), e);
+                }
+              });
+    } catch (IOException e) {
+      try {
+        in.close();
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw new UncheckedIOException("Failed to read cache " + getFile().getAbsolutePath(), e);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package org.fa.oss.contribution.helper.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * How a cached value of type {@code T} splits into records of type {@code V} for a {@link
+ * SegmentedRecordStore}, and how it is put back together. Records whose {@code key} is null are not
+ * stored.
+ */
+public record RecordLayout<T, V>(
+    Class<V> recordType,
+    Function<T, List<V>> records,
+    Function<V, Long> key,
+    Comparator<V> order,
+    Function<List<V>, T> value) {}
@@ -0,0 +1,22 @@
+package org.fa.oss.contribution.helper.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.fa.oss.contribution.helper.model.RepositoryCacheEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/** Repository details with the ETags to revalidate them, keyed by owner/name. */
+@Component
+public class RepositoriesCache extends JsonFileCache<Map<String, RepositoryCacheEntry>> {
+  @Autowired
+  public RepositoriesCache(ObjectMapper mapper, CacheProperties props) {
+    super(
+        mapper,
+        props,
+        "repositories.json",
+        new TypeReference<Map<String, RepositoryCacheEntry>>() {});
+  }
+}
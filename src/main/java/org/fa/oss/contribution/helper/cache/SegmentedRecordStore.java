@@ -0,0 +1,642 @@
+package org.fa.oss.contribution.helper.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+
+/**
+ * Log-structured store of values keyed by a long id. Every put or delete is one framed append to
+ * the active segment file; an in-memory index points each key at its latest record, and the active
+ * segment is sealed once it reaches {@code segment-bytes}. When superseded records make up {@code
+ * compaction-garbage-ratio} of the store, a background compaction copies the live records of all
+ * sealed segments into new segments and deletes the old ones.
+ *
+ * <p>A frame is the length and CRC32 of its body, then the body: a sequence number, the record
+ * type, the key and the value as compact JSON. On open every segment is scanned and the record with
+ * the highest sequence number wins for each key, so neither segment order nor a compaction
+ * interrupted halfway matters, as long as a delete outlives the records it deleted: a compaction
+ * therefore deletes the segments holding the oldest records first. A torn frame at the end of a
+ * segment, left by a crash during an append, is truncated away.
+ */
+@Slf4j
+public class SegmentedRecordStore<V> implements Closeable {
+
+  private static final String PREFIX = "segment-";
+  private static final String SUFFIX = ".log";
+
+  /** Body length and CRC32 of the body. */
+  private static final int FRAME_HEADER = 8;
+
+  /** Sequence number, type and key. */
+  private static final int BODY_HEADER = 17;
+
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+
+  private static final class Segment {
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private long size;
+    private long liveBytes;
+
+    /** Highest sequence number of the records in the segment, 0 while empty. */
+    private long maxSequence;
+
+    private Segment(long id, Path path, FileChannel channel, long size) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+      this.size = size;
+    }
+  }
+
+  /** The latest record of a key; {@code fingerprint} tells unchanged values apart without I/O. */
+  private record Location(
+      Segment segment, long offset, int bodyLength, long sequence, long fingerprint) {
+    long frameLength() {
+      return FRAME_HEADER + bodyLength;
+    }
+  }
+
+  private final Path directory;
+  private final ObjectMapper mapper;
+  private final Class<V> type;
+  private final CacheProperties.RecordStore settings;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, Location> index = new HashMap<>();
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+  private final AtomicLong segmentIds = new AtomicLong();
+  private Segment active;
+  private long nextSequence = 1;
+  private long version;
+  private long lastWriteMillis;
+
+  private final Object compactionLock = new Object();
+  private final AtomicBoolean compactionQueued = new AtomicBoolean();
+  private final ExecutorService compactor;
+
+  public SegmentedRecordStore(
+      Path directory, ObjectMapper mapper, Class<V> type, CacheProperties.RecordStore settings) {
+    this.directory = directory;
+    this.mapper = mapper;
+    this.type = type;
+    this.settings = settings;
+    this.compactor =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "compactor-" + directory.getFileName());
+              thread.setDaemon(true);
+              return thread;
+            });
+    try {
+      Files.createDirectories(directory);
+      recover();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open record store " + directory, e);
+    }
+  }
+
+  /** The value stored under {@code key}, or null. */
+  public V get(long key) {
+    lock.readLock().lock();
+    try {
+      Location location = index.get(key);
+      return location == null ? null : decode(readBody(location));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read record " + key + " from " + directory, e);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Every stored value, read in file order. */
+  public List<V> values() {
+    lock.readLock().lock();
+    try {
+      List<Location> locations = new ArrayList<>(index.values());
+      locations.sort(
+          Comparator.comparingLong((Location location) -> location.segment().id)
+              .thenComparingLong(Location::offset));
+      List<V> values = new ArrayList<>(locations.size());
+      for (Location location : locations) {
+        values.add(decode(readBody(location)));
+      }
+      return values;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read records from " + directory, e);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void put(long key, V value) {
+    Map<Long, byte[]> puts = new LinkedHashMap<>();
+    puts.put(key, encode(value));
+    append(puts, List.of());
+  }
+
+  public void delete(long key) {
+    append(Map.of(), List.of(key));
+  }
+
+  /**
+   * Makes {@code values} the whole content of the store: appends the values that differ from the
+   * stored ones and deletes the keys not in {@code values}, then syncs once. Returns the number of
+   * records appended.
+   */
+  public int replaceAll(Map<Long, V> values) {
+    Map<Long, byte[]> puts = new LinkedHashMap<>();
+    List<Long> deletes = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      values.forEach(
+          (key, value) -> {
+            byte[] payload = encode(value);
+            Location location = index.get(key);
+            if (location == null
+                || location.bodyLength() != BODY_HEADER + payload.length
+                || location.fingerprint() != fingerprint(payload, 0, payload.length)) {
+              puts.put(key, payload);
+            }
+          });
+      index.keySet().stream().filter(key -> !values.containsKey(key)).forEach(deletes::add);
+    } finally {
+      lock.readLock().unlock();
+    }
+    append(puts, deletes);
+    log.info(
+        "Record store {}: {} records written, {} deleted, {} unchanged",
+        directory.getFileName(),
+        puts.size(),
+        deletes.size(),
+        values.size() - puts.size());
+    return puts.size() + deletes.size();
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Increases with every write that changes the content. */
+  public long version() {
+    lock.readLock().lock();
+    try {
+      return version;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** When the content was last saved, also if unchanged; 0 when the store is empty on disk. */
+  public long lastWriteMillis() {
+    lock.readLock().lock();
+    try {
+      return lastWriteMillis;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void append(Map<Long, byte[]> puts, Collection<Long> deletes) {
+    lock.writeLock().lock();
+    try {
+      if (puts.isEmpty() && deletes.isEmpty()) {
+        // Nothing changed, but the content is confirmed as of now
+        lastWriteMillis = System.currentTimeMillis();
+        Files.setLastModifiedTime(active.path, FileTime.fromMillis(lastWriteMillis));
+        return;
+      }
+      List<Segment> written = new ArrayList<>();
+      for (Map.Entry<Long, byte[]> put : puts.entrySet()) {
+        appendRecord(PUT, put.getKey(), put.getValue(), written);
+      }
+      for (Long key : deletes) {
+        appendRecord(DELETE, key, new byte[0], written);
+      }
+      if (settings.isSyncOnWrite()) {
+        for (Segment segment : written) {
+          segment.channel.force(false);
+        }
+      }
+      version++;
+      lastWriteMillis = System.currentTimeMillis();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to record store " + directory, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    maybeCompact();
+  }
+
+  /** Appends one record to the active segment; call with the write lock held. */
+  private void appendRecord(byte recordType, long key, byte[] payload, List<Segment> written)
+      throws IOException {
+    if (active.size >= settings.getSegmentBytes()) {
+      active = newSegment();
+      segments.put(active.id, active);
+    }
+    long sequence = nextSequence++;
+    ByteBuffer frame = frame(sequence, recordType, key, payload);
+    long offset = active.size;
+    writeFully(active.channel, frame, offset);
+    active.size += frame.capacity();
+    active.maxSequence = sequence;
+    if (!written.contains(active)) {
+      written.add(active);
+    }
+
+    Location previous = index.remove(key);
+    if (previous != null) {
+      previous.segment().liveBytes -= previous.frameLength();
+    }
+    if (recordType == PUT) {
+      Location location =
+          new Location(
+              active,
+              offset,
+              BODY_HEADER + payload.length,
+              sequence,
+              fingerprint(payload, 0, payload.length));
+      index.put(key, location);
+      active.liveBytes += location.frameLength();
+    }
+  }
+
+  private void maybeCompact() {
+    long total;
+    long live;
+    lock.readLock().lock();
+    try {
+      total = segments.values().stream().mapToLong(segment -> segment.size).sum();
+      live = segments.values().stream().mapToLong(segment -> segment.liveBytes).sum();
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (total < settings.getCompactionMinBytes()
+        || total - live < total * settings.getCompactionGarbageRatio()
+        || !compactionQueued.compareAndSet(false, true)) {
+      return;
+    }
+    compactor.execute(
+        () -> {
+          compactionQueued.set(false);
+          try {
+            compact();
+          } catch (RuntimeException e) {
+            log.error("Compaction of record store {} failed", directory, e);
+          }
+        });
+  }
+
+  /**
+   * Seals the active segment and rewrites the live records of all sealed segments into new ones.
+   * Writes and reads carry on meanwhile; a record written during the copy supersedes its copy.
+   */
+  public void compact() {
+    synchronized (compactionLock) {
+      long startNanos = System.nanoTime();
+      List<Segment> sealed;
+      Map<Long, Location> live = new LinkedHashMap<>();
+      lock.writeLock().lock();
+      try {
+        if (active.size > 0) {
+          active = newSegment();
+          segments.put(active.id, active);
+        }
+        sealed = new ArrayList<>(segments.headMap(active.id).values());
+        index.forEach(
+            (key, location) -> {
+              if (location.segment() != active) {
+                live.put(key, location);
+              }
+            });
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to roll record store " + directory, e);
+      } finally {
+        lock.writeLock().unlock();
+      }
+      if (sealed.isEmpty()) {
+        return;
+      }
+
+      // Sealed segments are only closed by this compaction, so they are read without the lock
+      List<Segment> compacted = new ArrayList<>();
+      Map<Long, Location> moved = new HashMap<>();
+      try {
+        Segment target = null;
+        List<Map.Entry<Long, Location>> entries = new ArrayList<>(live.entrySet());
+        entries.sort(
+            Comparator.comparingLong(
+                    (Map.Entry<Long, Location> entry) -> entry.getValue().segment().id)
+                .thenComparingLong(entry -> entry.getValue().offset()));
+        for (Map.Entry<Long, Location> entry : entries) {
+          Location from = entry.getValue();
+          if (target == null || target.size >= settings.getSegmentBytes()) {
+            target = newSegment();
+            compacted.add(target);
+          }
+          ByteBuffer frame = ByteBuffer.allocate((int) from.frameLength());
+          readFully(from.segment().channel, frame, from.offset());
+          frame.flip();
+          writeFully(target.channel, frame, target.size);
+          moved.put(
+              entry.getKey(),
+              new Location(
+                  target, target.size, from.bodyLength(), from.sequence(), from.fingerprint()));
+          target.size += from.frameLength();
+          target.maxSequence = Math.max(target.maxSequence, from.sequence());
+        }
+        for (Segment segment : compacted) {
+          segment.channel.force(false);
+        }
+      } catch (IOException e) {
+        for (Segment segment : compacted) {
+          closeAndDelete(segment);
+        }
+        throw new UncheckedIOException("Failed to compact record store " + directory, e);
+      }
+
+      long before = sealed.stream().mapToLong(segment -> segment.size).sum();
+      lock.writeLock().lock();
+      try {
+        moved.forEach(
+            (key, to) -> {
+              // Keys written or deleted during the copy keep their newer record
+              if (index.get(key) == live.get(key)) {
+                index.put(key, to);
+                to.segment().liveBytes += to.frameLength();
+              }
+            });
+        compacted.forEach(segment -> segments.put(segment.id, segment));
+        sealed.forEach(segment -> segments.remove(segment.id));
+      } finally {
+        lock.writeLock().unlock();
+      }
+      // Compacted segments get ids above the active one, so ids do not tell which is older. Going
+      // by the newest record held, a crash midway leaves only segments whose deletes still apply
+      sealed.sort(Comparator.comparingLong(segment -> segment.maxSequence));
+      sealed.forEach(this::closeAndDelete);
+      log.info(
+          "Compacted record store {}: {} segments ({} bytes) into {} ({} bytes) in {} ms",
+          directory.getFileName(),
+          sealed.size(),
+          before,
+          compacted.size(),
+          compacted.stream().mapToLong(segment -> segment.size).sum(),
+          (System.nanoTime() - startNanos) / 1_000_000);
+    }
+  }
+
+  @Override
+  public void close() {
+    compactor.shutdownNow();
+    synchronized (compactionLock) {
+      lock.writeLock().lock();
+      try {
+        for (Segment segment : segments.values()) {
+          try {
+            segment.channel.close();
+          } catch (IOException e) {
+            log.warn("Failed to close {}", segment.path, e);
+          }
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  private void recover() throws IOException {
+    long startNanos = System.nanoTime();
+    List<Path> paths = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+      files.forEach(paths::add);
+    }
+    paths.sort(Comparator.comparingLong(SegmentedRecordStore::segmentId));
+
+    Map<Long, Location> latest = new HashMap<>();
+    Map<Long, Long> deletedAt = new HashMap<>();
+    long lastModified = 0;
+    for (Path path : paths) {
+      long id = segmentId(path);
+      segmentIds.accumulateAndGet(id, Math::max);
+      FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      Segment segment = new Segment(id, path, channel, 0);
+      segments.put(id, segment);
+      scan(segment, latest, deletedAt);
+      lastModified = Math.max(lastModified, Files.getLastModifiedTime(path).toMillis());
+    }
+    if (segments.values().stream().anyMatch(segment -> segment.size > 0)) {
+      lastWriteMillis = lastModified;
+    }
+    latest.forEach(
+        (key, location) -> {
+          Long deleted = deletedAt.get(key);
+          if (deleted == null || deleted < location.sequence()) {
+            index.put(key, location);
+            location.segment().liveBytes += location.frameLength();
+          }
+        });
+
+    Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+    if (last == null || last.size >= settings.getSegmentBytes()) {
+      last = newSegment();
+      segments.put(last.id, last);
+    }
+    active = last;
+    log.info(
+        "Record store {}: {} records in {} segments recovered in {} ms",
+        directory.getFileName(),
+        index.size(),
+        segments.size(),
+        (System.nanoTime() - startNanos) / 1_000_000);
+  }
+
+  /** Reads the frames of {@code segment} into {@code latest} and {@code deletedAt}. */
+  private void scan(Segment segment, Map<Long, Location> latest, Map<Long, Long> deletedAt)
+      throws IOException {
+    long fileSize = segment.channel.size();
+    long offset = 0;
+    // Not closed: closing it would close the channel the segment keeps using
+    DataInputStream data =
+        new DataInputStream(
+            new BufferedInputStream(
+                Channels.newInputStream(segment.channel.position(0)), 64 * 1024));
+    while (offset < fileSize) {
+      int bodyLength;
+      int crc;
+      byte[] body;
+      try {
+        bodyLength = data.readInt();
+        crc = data.readInt();
+        if (bodyLength < BODY_HEADER || offset + FRAME_HEADER + bodyLength > fileSize) {
+          break;
+        }
+        body = data.readNBytes(bodyLength);
+      } catch (EOFException e) {
+        break;
+      }
+      CRC32 checksum = new CRC32();
+      checksum.update(body);
+      if (body.length != bodyLength || (int) checksum.getValue() != crc) {
+        break;
+      }
+      ByteBuffer header = ByteBuffer.wrap(body, 0, BODY_HEADER);
+      long sequence = header.getLong();
+      byte recordType = header.get();
+      long key = header.getLong();
+      nextSequence = Math.max(nextSequence, sequence + 1);
+      segment.maxSequence = Math.max(segment.maxSequence, sequence);
+      if (recordType == DELETE) {
+        deletedAt.merge(key, sequence, Math::max);
+      } else {
+        Location previous = latest.get(key);
+        if (previous == null || previous.sequence() < sequence) {
+          latest.put(
+              key,
+              new Location(
+                  segment,
+                  offset,
+                  bodyLength,
+                  sequence,
+                  fingerprint(body, BODY_HEADER, bodyLength - BODY_HEADER)));
+        }
+      }
+      offset += FRAME_HEADER + bodyLength;
+    }
+    if (offset < fileSize) {
+      // Only an append cut short by a crash leaves a frame that does not check out
+      log.warn(
+          "Record store {}: truncating {} bytes of an incomplete write at offset {} of {}",
+          directory.getFileName(),
+          fileSize - offset,
+          offset,
+          segment.path.getFileName());
+      segment.channel.truncate(offset);
+      segment.channel.force(true);
+    }
+    segment.size = offset;
+  }
+
+  private Segment newSegment() throws IOException {
+    long id = segmentIds.incrementAndGet();
+    Path path = directory.resolve(String.format("%s%08d%s", PREFIX, id, SUFFIX));
+    FileChannel channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    return new Segment(id, path, channel, 0);
+  }
+
+  private void closeAndDelete(Segment segment) {
+    try {
+      segment.channel.close();
+      deleteSegmentFile(segment.path);
+    } catch (IOException e) {
+      log.warn("Failed to delete segment {}", segment.path, e);
+    }
+  }
+
+  /** Deletes a segment file no longer needed; tests override it to stop as a crash would. */
+  void deleteSegmentFile(Path path) throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  private static ByteBuffer frame(long sequence, byte recordType, long key, byte[] payload) {
+    int bodyLength = BODY_HEADER + payload.length;
+    ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + bodyLength);
+    frame.putInt(bodyLength).putInt(0);
+    frame.putLong(sequence).put(recordType).putLong(key).put(payload);
+    CRC32 checksum = new CRC32();
+    checksum.update(frame.array(), FRAME_HEADER, bodyLength);
+    frame.putInt(4, (int) checksum.getValue());
+    frame.flip();
+    return frame;
+  }
+
+  private byte[] readBody(Location location) throws IOException {
+    ByteBuffer body = ByteBuffer.allocate(location.bodyLength());
+    readFully(location.segment().channel, body, location.offset() + FRAME_HEADER);
+    return body.array();
+  }
+
+  private byte[] encode(V value) {
+    try {
+      return mapper.writeValueAsBytes(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to encode record for " + directory, e);
+    }
+  }
+
+  private V decode(byte[] body) throws IOException {
+    return mapper.readValue(body, BODY_HEADER, body.length - BODY_HEADER, type);
+  }
+
+  /** Two independent 32-bit checksums of the value. */
+  private static long fingerprint(byte[] bytes, int offset, int length) {
+    CRC32 crc32 = new CRC32();
+    crc32.update(bytes, offset, length);
+    CRC32C crc32c = new CRC32C();
+    crc32c.update(bytes, offset, length);
+    return crc32.getValue() << 32 | crc32c.getValue();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("Record past the end of the segment");
+      }
+      position += read;
+    }
+  }
+
+  private static long segmentId(Path path) {
+    String name = path.getFileName().toString();
+    return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+  }
+}
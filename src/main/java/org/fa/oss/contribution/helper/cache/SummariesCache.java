@@ -2,8 +2,10 @@ package org.fa.oss.contribution.helper.cache;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Comparator;
 import org.fa.oss.contribution.helper.config.CacheProperties;
 import org.fa.oss.contribution.helper.dto.response.IssueSummaryResultListDTO;
+import org.fa.oss.contribution.helper.model.IssueSummary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -12,5 +14,19 @@ public class SummariesCache extends JsonFileCache<IssueSummaryResultListDTO> {
   @Autowired
   public SummariesCache(ObjectMapper mapper, CacheProperties props) {
     super(mapper, props, "summaries.json", new TypeReference<IssueSummaryResultListDTO>() {});
+    // Summaries are stored under the id of their issue, in the order of the issues cache
+    storeRecords(
+        new RecordLayout<>(
+            IssueSummary.class,
+            IssueSummaryResultListDTO::getSummaries,
+            summary -> summary.getIssueDTO() == null ? null : summary.getIssueDTO().getId(),
+            Comparator.comparing(
+                summary -> summary.getIssueDTO().getUpdatedAt(),
+                Comparator.nullsLast(Comparator.reverseOrder())),
+            summaries ->
+                IssueSummaryResultListDTO.builder()
+                    .summaries(summaries)
+                    .count(summaries.size())
+                    .build()));
   }
 }
@@ -0,0 +1,116 @@
+package org.fa.oss.contribution.helper.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.fa.oss.contribution.helper.model.IssueSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only JSONL journal of summaries completed during a run. Every record is flushed and forced
+ * to disk as soon as it is written, so a crashed run can be resumed from the journal and only the
+ * missing issues are sent to the LLM again. Once the run has written its snapshot to {@link
+ * SummariesCache} the journal is compacted away.
+ */
+@Slf4j
+@Component
+public class SummaryJournal {
+
+  private static final String FILE_NAME = "summaries.journal.jsonl";
+  private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+  private final ObjectMapper mapper;
+  private final File file;
+
+  private FileOutputStream out;
+
+  @Autowired
+  public SummaryJournal(ObjectMapper mapper, CacheProperties properties) {
+    this.mapper = mapper;
+    this.file = new File(properties.getBaseDir(), FILE_NAME);
+    this.file.getParentFile().mkdirs();
+  }
+
+  /** Summaries recorded by an earlier run that did not reach compaction, keyed by issue id. */
+  public synchronized Map<Long, IssueSummary> readCompleted() {
+    if (!file.exists()) {
+      return Collections.emptyMap();
+    }
+    Map<Long, IssueSummary> completed = new HashMap<>();
+    int lineNumber = 0;
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        try {
+          IssueSummary summary = mapper.readValue(line, IssueSummary.class);
+          if (summary.getIssueDTO() != null) {
+            completed.put(summary.getIssueDTO().getId(), summary);
+          }
+        } catch (IOException e) {
+          // A crash mid-write leaves a torn last line; everything before it is still valid
+          log.warn("Skipping unreadable journal line {} in {}", lineNumber, file.getPath());
+        }
+      }
+    } catch (IOException e) {
+      log.error("Failed to read summary journal {}", file.getAbsolutePath(), e);
+    }
+    log.info("Summary journal holds {} completed summaries", completed.size());
+    return completed;
+  }
+
+  /** Starts a fresh journal, discarding whatever a previous run left behind. */
+  public synchronized void reset() {
+    closeQuietly();
+    try {
+      Files.deleteIfExists(file.toPath());
+    } catch (IOException e) {
+      log.warn("Failed to delete summary journal {}", file.getAbsolutePath(), e);
+    }
+  }
+
+  public synchronized void append(IssueSummary summary) {
+    try {
+      if (out == null) {
+        out = new FileOutputStream(file, true);
+      }
+      out.write(mapper.writeValueAsBytes(summary));
+      out.write(NEW_LINE);
+      out.flush();
+      out.getChannel().force(false);
+    } catch (IOException e) {
+      log.error("Failed to append summary of issue to journal {}", file.getAbsolutePath(), e);
+    }
+  }
+
+  /** Drops the journal once its records are part of the saved snapshot. */
+  public synchronized void compact() {
+    reset();
+    log.info("Summary journal compacted into snapshot");
+  }
+
+  private void closeQuietly() {
+    if (out == null) {
+      return;
+    }
+    try {
+      out.close();
+    } catch (IOException e) {
+      log.warn("Failed to close summary journal {}", file.getAbsolutePath(), e);
+    }
+    out = null;
+  }
+}
@@ -0,0 +1,274 @@
+package org.fa.oss.contribution.helper.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.fa.oss.contribution.helper.dto.response.SummaryDTO;
+import org.fa.oss.contribution.helper.dto.response.SummaryResultCacheStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-addressed cache of LLM summary results, keyed by a hash of the full request payload
+ * (prompt, model and request parameters). Entries live in an in-memory LRU in front of one file per
+ * entry under {@code <base-dir>/summary-results}; both tiers are size bounded and evict the least
+ * recently used entry first. File modification times keep the disk LRU order across restarts. Both
+ * indexes are guarded by the cache's monitor; files are read and written outside of it.
+ */
+@Slf4j
+@Component
+public class SummaryResultCache {
+
+  private static final String DIR_NAME = "summary-results";
+  private static final String SUFFIX = ".json";
+
+  private record Entry(SummaryDTO summary, long generationMillis, long createdAt) {}
+
+  private final ObjectMapper mapper;
+  private final ObjectMapper keyMapper;
+  private final File dir;
+  private final CacheProperties.SummaryResults limits;
+
+  private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+  private long diskBytes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong savedGenerationMillis = new AtomicLong();
+
+  @Autowired
+  public SummaryResultCache(ObjectMapper mapper, CacheProperties properties) {
+    this.mapper = mapper;
+    this.keyMapper =
+        JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+    this.limits = properties.getSummaryResults();
+    this.dir = new File(properties.getBaseDir(), DIR_NAME);
+    this.dir.mkdirs();
+    loadDiskIndex();
+  }
+
+  /** Hash of the request exactly as it would be sent, so any prompt or parameter change misses. */
+  public String keyFor(Object request) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(keyMapper.writeValueAsBytes(request)));
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new IllegalStateException("Failed to compute summary cache key", e);
+    }
+  }
+
+  public Optional<SummaryDTO> get(String key) {
+    Entry entry;
+    boolean onDisk;
+    synchronized (this) {
+      entry = memory.get(key);
+      // get() rather than containsKey(): a hit in either tier is a use in the disk LRU
+      onDisk = diskIndex.get(key) != null;
+    }
+    if (entry == null && onDisk) {
+      entry = readFromDisk(key);
+      if (entry != null) {
+        synchronized (this) {
+          putInMemory(key, entry);
+        }
+      }
+    } else if (onDisk) {
+      touch(key);
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+      return Optional.empty();
+    }
+    hits.incrementAndGet();
+    savedGenerationMillis.addAndGet(entry.generationMillis());
+    return Optional.of(copy(entry.summary()));
+  }
+
+  public void put(String key, SummaryDTO summary, long generationMillis) {
+    Entry entry = new Entry(copy(summary), generationMillis, System.currentTimeMillis());
+    synchronized (this) {
+      putInMemory(key, entry);
+    }
+    writeToDisk(key, entry);
+  }
+
+  /** Drops every entry from both tiers. */
+  public void clear() {
+    List<String> keys;
+    synchronized (this) {
+      memory.clear();
+      keys = new ArrayList<>(diskIndex.keySet());
+      diskIndex.clear();
+      diskBytes = 0;
+    }
+    keys.forEach(key -> deleteQuietly(fileFor(key).toPath()));
+  }
+
+  public SummaryResultCacheStatsDTO getStats() {
+    long hitCount = hits.get();
+    long missCount = misses.get();
+    long total = hitCount + missCount;
+    synchronized (this) {
+      return new SummaryResultCacheStatsDTO(
+          hitCount,
+          missCount,
+          total == 0 ? 0 : (double) hitCount / total,
+          memory.size(),
+          diskIndex.size(),
+          diskBytes,
+          savedGenerationMillis.get());
+    }
+  }
+
+  private void putInMemory(String key, Entry entry) {
+    memory.put(key, entry);
+    Iterator<String> eldest = memory.keySet().iterator();
+    while (memory.size() > limits.getMemoryEntries() && eldest.hasNext()) {
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  private Entry readFromDisk(String key) {
+    File file = fileFor(key);
+    try {
+      Entry entry = mapper.readValue(file, Entry.class);
+      file.setLastModified(System.currentTimeMillis());
+      return entry;
+    } catch (NoSuchFileException | FileNotFoundException e) {
+      // Evicted since the index was checked
+      synchronized (this) {
+        unindex(key);
+      }
+      return null;
+    } catch (IOException e) {
+      log.warn("Dropping unreadable summary cache entry {}", file.getAbsolutePath(), e);
+      synchronized (this) {
+        unindex(key);
+      }
+      deleteQuietly(file.toPath());
+      return null;
+    }
+  }
+
+  /** Keeps a memory hit recent in the disk LRU order restored after a restart. */
+  private void touch(String key) {
+    fileFor(key).setLastModified(System.currentTimeMillis());
+  }
+
+  private void writeToDisk(String key, Entry entry) {
+    File file = fileFor(key);
+    long size;
+    try {
+      // Unique per writer, so concurrent puts of one key do not share a staging file
+      Path tmpFile = Files.createTempFile(dir.toPath(), key, SUFFIX + ".tmp");
+      try {
+        mapper.writeValue(tmpFile.toFile(), entry);
+        size = Files.size(tmpFile);
+        Files.move(
+            tmpFile,
+            file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+    } catch (IOException e) {
+      log.warn("Failed to persist summary cache entry {}", file.getAbsolutePath(), e);
+      return;
+    }
+    List<String> evicted;
+    synchronized (this) {
+      Long previousSize = diskIndex.put(key, size);
+      diskBytes += size - (previousSize != null ? previousSize : 0);
+      evicted = evictFromDisk();
+    }
+    evicted.forEach(evictedKey -> deleteQuietly(fileFor(evictedKey).toPath()));
+  }
+
+  /** Drops the least recently used entries from the index and returns their keys. */
+  private List<String> evictFromDisk() {
+    List<String> evicted = new ArrayList<>();
+    Iterator<Map.Entry<String, Long>> eldest = diskIndex.entrySet().iterator();
+    while ((diskIndex.size() > limits.getDiskEntries() || diskBytes > limits.getDiskBytes())
+        && eldest.hasNext()) {
+      Map.Entry<String, Long> entry = eldest.next();
+      eldest.remove();
+      diskBytes -= entry.getValue();
+      evicted.add(entry.getKey());
+    }
+    return evicted;
+  }
+
+  private void unindex(String key) {
+    Long size = diskIndex.remove(key);
+    if (size != null) {
+      diskBytes -= size;
+    }
+  }
+
+  private void loadDiskIndex() {
+    File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+    for (File file : files) {
+      String name = file.getName();
+      diskIndex.put(name.substring(0, name.length() - SUFFIX.length()), file.length());
+      diskBytes += file.length();
+    }
+    evictFromDisk().forEach(key -> deleteQuietly(fileFor(key).toPath()));
+    log.info("Summary result cache: {} entries ({} bytes) on disk", diskIndex.size(), diskBytes);
+  }
+
+  private File fileFor(String key) {
+    return new File(dir, key + SUFFIX);
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn("Failed to delete summary cache entry {}", path, e);
+    }
+  }
+
+  private static SummaryDTO copy(SummaryDTO summary) {
+    return SummaryDTO.builder()
+        .main(summary.getMain())
+        .validationOrRequirement(summary.getValidationOrRequirement())
+        .attemptedFixes(summary.getAttemptedFixes())
+        .otherNotes(summary.getOtherNotes())
+        .summaryText(summary.getSummaryText())
+        .validJson(summary.isValidJson())
+        .build();
+  }
+}
@@ -0,0 +1,155 @@
+package org.fa.oss.contribution.helper.cache;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Immutable copies of {@code summaries.json} prepared for serving. Every published snapshot is
+ * written once under {@code <base-dir>/summary-snapshots}, named after the SHA-256 of its content,
+ * next to a gzip variant compressed at publish time; the content hash doubles as a strong ETag,
+ * suffixed with {@code -gzip} for the gzip variant since the two encodings are different bytes.
+ * Requests then only stream one of the two files, and republishing unchanged summaries keeps the
+ * files, ETag and Last-Modified of the earlier snapshot.
+ */
+@Slf4j
+@Component
+public class SummarySnapshots {
+
+  private static final String DIRECTORY = "summary-snapshots";
+
+  /** Snapshots kept on disk, so responses still streaming the previous one can finish. */
+  private static final int RETAINED = 2;
+
+  /** A published snapshot: plain file and gzip file, each with its own ETag. */
+  public record Snapshot(
+      Instant lastModified,
+      Path json,
+      long jsonLength,
+      String jsonEtag,
+      Path gzip,
+      long gzipLength,
+      String gzipEtag) {}
+
+  private final SummariesCache summariesCache;
+  private final Path directory;
+
+  private volatile Snapshot current;
+
+  @Autowired
+  public SummarySnapshots(SummariesCache summariesCache, CacheProperties properties) {
+    this.summariesCache = summariesCache;
+    this.directory = Path.of(properties.getBaseDir(), DIRECTORY);
+  }
+
+  @PostConstruct
+  void publishOnStartup() {
+    publish();
+  }
+
+  /** The snapshot to serve, or null before summaries were ever saved. */
+  public Snapshot current() {
+    return current;
+  }
+
+  /** Publishes the summaries currently saved in {@link SummariesCache}. */
+  public synchronized void publish() {
+    summariesCache.export();
+    Path source = summariesCache.getFile().toPath();
+    if (!Files.exists(source)) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+      long startNanos = System.nanoTime();
+      Path staged = Files.createTempFile(directory, "summaries-", ".tmp");
+      String hash;
+      try {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+          Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+        }
+        hash = HexFormat.of().formatHex(digest.digest()).substring(0, 32);
+
+        Path json = directory.resolve(hash + ".json");
+        Path gzip = directory.resolve(hash + ".json.gz");
+        if (!Files.exists(json) || !Files.exists(gzip)) {
+          compress(staged, gzip);
+          Files.move(staged, json, StandardCopyOption.ATOMIC_MOVE);
+        }
+        current =
+            new Snapshot(
+                Files.getLastModifiedTime(json).toInstant(),
+                json,
+                Files.size(json),
+                "\"" + hash + "\"",
+                gzip,
+                Files.size(gzip),
+                "\"" + hash + "-gzip\"");
+      } finally {
+        Files.deleteIfExists(staged);
+      }
+      log.info(
+          "Published summaries snapshot {}: {} bytes, {} gzipped, in {} ms",
+          current.jsonEtag(),
+          current.jsonLength(),
+          current.gzipLength(),
+          (System.nanoTime() - startNanos) / 1_000_000);
+      removeOlderSnapshots();
+    } catch (IOException | NoSuchAlgorithmException e) {
+      log.error("Failed to publish summaries snapshot", e);
+    }
+  }
+
+  private void compress(Path source, Path target) throws IOException {
+    Path staged = Files.createTempFile(directory, "summaries-", ".gz.tmp");
+    try {
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(staged), 64 * 1024)) {
+        Files.copy(source, out);
+      }
+      Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(staged);
+    }
+  }
+
+  private void removeOlderSnapshots() throws IOException {
+    List<Path> snapshots = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+      files.forEach(snapshots::add);
+    }
+    snapshots.sort(Comparator.comparingLong(SummarySnapshots::lastModifiedMillis).reversed());
+    for (Path json : snapshots.subList(Math.min(RETAINED, snapshots.size()), snapshots.size())) {
+      if (!json.equals(current.json())) {
+        Files.deleteIfExists(json);
+        Files.deleteIfExists(json.resolveSibling(json.getFileName() + ".gz"));
+      }
+    }
+  }
+
+  private static long lastModifiedMillis(Path path) {
+    try {
+      return Files.getLastModifiedTime(path).toMillis();
+    } catch (IOException e) {
+      return 0L;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package org.fa.oss.contribution.helper.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/** Token counts of issue prompt sections, keyed by a hash of the section text. */
+@Component
+public class TokenCountsCache extends JsonFileCache<Map<String, Integer>> {
+  @Autowired
+  public TokenCountsCache(ObjectMapper mapper, CacheProperties props) {
+    super(mapper, props, "token-counts.json", new TypeReference<Map<String, Integer>>() {});
+  }
+}
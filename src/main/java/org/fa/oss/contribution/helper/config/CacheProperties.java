@@ -1,5 +1,8 @@
 package org.fa.oss.contribution.helper.config;
 
+import java.util.HashMap;
+import java.util.Map;
+import org.fa.oss.contribution.helper.cache.CacheCodec;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -7,6 +10,16 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "cache")
 public class CacheProperties {
   private String baseDir;
+  private SummaryResults summaryResults = new SummaryResults();
+
+  /**
+   * File format per cache, keyed by its file name without extension ({@code issues}, {@code
+   * repositories}, ...). Caches not listed are written as indented JSON.
+   */
+  private Map<String, Format> formats = new HashMap<>();
+
+  /** Settings shared by the caches kept in a record store ({@link Format#isRecordStore()}). */
+  private RecordStore recordStore = new RecordStore();
 
   public String getBaseDir() {
     return baseDir;
@@ -15,4 +28,145 @@ public class CacheProperties {
   public void setBaseDir(String baseDir) {
     this.baseDir = baseDir;
   }
+
+  public SummaryResults getSummaryResults() {
+    return summaryResults;
+  }
+
+  public void setSummaryResults(SummaryResults summaryResults) {
+    this.summaryResults = summaryResults;
+  }
+
+  public Map<String, Format> getFormats() {
+    return formats;
+  }
+
+  public void setFormats(Map<String, Format> formats) {
+    this.formats = formats;
+  }
+
+  public RecordStore getRecordStore() {
+    return recordStore;
+  }
+
+  public void setRecordStore(RecordStore recordStore) {
+    this.recordStore = recordStore;
+  }
+
+  /**
+   * How one cache file is written. Any file is read whatever format it was written in, so changing
+   * this takes effect with the next save. {@code summaries} must stay JSON: its file is served and
+   * uploaded as it is.
+   */
+  public static class Format {
+    private CacheCodec codec = CacheCodec.PRETTY_JSON;
+    private boolean gzip;
+
+    /**
+     * Keep the cache one record per issue in {@code <base-dir>/<name>-records} instead of one file,
+     * so that a save only appends the records that changed. The file is then written only on {@code
+     * export()}, for the code that serves or uploads it. Only {@code issues} and {@code summaries}
+     * support this.
+     */
+    private boolean recordStore;
+
+    public CacheCodec getCodec() {
+      return codec;
+    }
+
+    public void setCodec(CacheCodec codec) {
+      this.codec = codec;
+    }
+
+    public boolean isGzip() {
+      return gzip;
+    }
+
+    public void setGzip(boolean gzip) {
+      this.gzip = gzip;
+    }
+
+    public boolean isRecordStore() {
+      return recordStore;
+    }
+
+    public void setRecordStore(boolean recordStore) {
+      this.recordStore = recordStore;
+    }
+  }
+
+  /** Segment size and compaction thresholds of the record stores. */
+  public static class RecordStore {
+    private long segmentBytes = 16L * 1024 * 1024;
+    private long compactionMinBytes = 4L * 1024 * 1024;
+
+    /** Share of superseded and deleted records above which the store is compacted. */
+    private double compactionGarbageRatio = 0.5;
+
+    /** Whether each save is forced to disk before it returns. */
+    private boolean syncOnWrite = true;
+
+    public long getSegmentBytes() {
+      return segmentBytes;
+    }
+
+    public void setSegmentBytes(long segmentBytes) {
+      this.segmentBytes = segmentBytes;
+    }
+
+    public long getCompactionMinBytes() {
+      return compactionMinBytes;
+    }
+
+    public void setCompactionMinBytes(long compactionMinBytes) {
+      this.compactionMinBytes = compactionMinBytes;
+    }
+
+    public double getCompactionGarbageRatio() {
+      return compactionGarbageRatio;
+    }
+
+    public void setCompactionGarbageRatio(double compactionGarbageRatio) {
+      this.compactionGarbageRatio = compactionGarbageRatio;
+    }
+
+    public boolean isSyncOnWrite() {
+      return syncOnWrite;
+    }
+
+    public void setSyncOnWrite(boolean syncOnWrite) {
+      this.syncOnWrite = syncOnWrite;
+    }
+  }
+
+  /** Limits of the content-addressed LLM result cache under {@code <base-dir>/summary-results}. */
+  public static class SummaryResults {
+    private int memoryEntries = 2_000;
+    private int diskEntries = 50_000;
+    private long diskBytes = 512L * 1024 * 1024;
+
+    public int getMemoryEntries() {
+      return memoryEntries;
+    }
+
+    public void setMemoryEntries(int memoryEntries) {
+      this.memoryEntries = memoryEntries;
+    }
+
+    public int getDiskEntries() {
+      return diskEntries;
+    }
+
+    public void setDiskEntries(int diskEntries) {
+      this.diskEntries = diskEntries;
+    }
+
+    public long getDiskBytes() {
+      return diskBytes;
+    }
+
+    public void setDiskBytes(long diskBytes) {
+      this.diskBytes = diskBytes;
+    }
+  }
 }
@@ -0,0 +1,47 @@
+package org.fa.oss.contribution.helper.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.fa.oss.contribution.helper.service.GitHubRequestScheduler;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.extras.okhttp3.OkHttpGitHubConnector;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The one GitHub client of the application. Every caller shares its keep-alive connection pool, its
+ * on-disk response cache and the rate limit pacing of {@link GitHubRequestScheduler}.
+ */
+@Configuration
+public class GitHubClientConfig {
+
+  @Bean
+  public OkHttpClient gitHubHttpClient(GithubConfig githubConfig, CacheProperties cacheProperties) {
+    GithubConfig.Http http = githubConfig.getHttp();
+    return new OkHttpClient.Builder()
+        .connectionPool(
+            new ConnectionPool(
+                http.getMaxIdleConnections(), http.getKeepAliveMs(), TimeUnit.MILLISECONDS))
+        .cache(
+            new Cache(
+                new File(cacheProperties.getBaseDir(), "github-http"), http.getCacheMaxBytes()))
+        .build();
+  }
+
+  @Bean
+  public GitHub gitHub(
+      GithubConfig githubConfig, GitHubRequestScheduler scheduler, OkHttpClient gitHubHttpClient)
+      throws IOException {
+    // max-age 0: every cached response is revalidated, and GitHub answers unchanged ones with a 304
+    return new GitHubBuilder()
+        .withEndpoint(githubConfig.getApiUrl())
+        .withOAuthToken(githubConfig.getToken())
+        .withConnector(scheduler.connector(new OkHttpGitHubConnector(gitHubHttpClient, 0)))
+        .build();
+  }
+}
@@ -1,7 +1,9 @@
 package org.fa.oss.contribution.helper.config;
 
+import java.time.Instant;
 import lombok.Getter;
 import lombok.Setter;
+import org.fa.oss.contribution.helper.constants.Github;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,7 +17,115 @@ public class GithubConfig {
   private long issuesTtlMillis;
   public String summaryCdnRepo;
 
+  /** GitHub REST API base address. */
+  private String apiUrl = "https://api.github.com";
+
+  /**
+   * Cached repository details are used as they are for this long, then revalidated with conditional
+   * requests.
+   */
+  private long repositoryTtlMillis = 24 * 60 * 60 * 1000;
+
+  /** Concurrency of the blocking GitHub calls made while ingesting issues. */
+  private Ingestion ingestion = new Ingestion();
+
+  /** Pacing of all GitHub requests against the rate limits GitHub reports. */
+  private RateLimit rateLimit = new RateLimit();
+
+  /** Connection pool and response cache of the shared GitHub client. */
+  private Http http = new Http();
+
   public String getToken() {
     return token;
   }
+
+  @Getter
+  @Setter
+  public static class Ingestion {
+
+    /**
+     * {@code rest}: search, then one request per issue for comments and per repository for details.
+     * {@code graphql}: issues, comments and repositories from paginated GraphQL searches.
+     */
+    private String engine = Github.INGESTION_ENGINE_REST;
+
+    /** GitHub GraphQL endpoint used by the graphql engine. */
+    private String graphqlUrl = "https://api.github.com/graphql";
+
+    /** Issues per GraphQL search page, at most 100. */
+    private int graphqlPageSize = 50;
+
+    /** Comments fetched with each issue; longer threads are paged in follow-up queries. */
+    private int graphqlCommentsPerIssue = 100;
+
+    /** Upper bound of GitHub requests in flight while mapping issues and repositories. */
+    private int maxConcurrency = 32;
+
+    /** Lower bound, used when little of the rate limit is left. */
+    private int minConcurrency = 2;
+
+    /** One concurrent slot per this many remaining core API requests. */
+    private int requestsPerSlot = 100;
+
+    /** Issues are kept only from repositories with at least this many stars. */
+    private int minStars = 16;
+
+    /** Issues are kept only from repositories with at least this many forks. */
+    private int minForks = 11;
+
+    /**
+     * Search only for issues updated since the last successful run and merge them into the cached
+     * issues, instead of harvesting every issue each run.
+     */
+    private boolean incremental = true;
+
+    /**
+     * Harvest every issue again at least this often. Catches issues whose label was removed, which
+     * a label search cannot return.
+     */
+    private long fullReconcileIntervalMillis = 24 * 60 * 60 * 1000;
+
+    /** Incremental searches reach back this far before the last run, for search index lag. */
+    private long deltaOverlapMillis = 10 * 60 * 1000;
+
+    /**
+     * Oldest creation time covered when a full search is split into {@code created:} windows to get
+     * past the 1000 results GitHub returns per search.
+     */
+    private Instant searchPartitionStart = Instant.parse("2008-01-01T00:00:00Z");
+  }
+
+  @Getter
+  @Setter
+  public static class RateLimit {
+
+    /**
+     * Requests go out unpaced while more than this share of a bucket's limit is left; below it they
+     * are spread evenly over the time until the limit resets.
+     */
+    private double pacingThreshold = 0.2;
+
+    /** Share of each bucket's limit kept for high priority requests. */
+    private double reserveFraction = 0.02;
+
+    /** Pause after a secondary rate limit answer that carries no Retry-After. */
+    private long secondaryLimitWaitMs = 60_000;
+  }
+
+  @Getter
+  @Setter
+  public static class Http {
+
+    /** Idle connections to GitHub kept open for reuse. */
+    private int maxIdleConnections = 32;
+
+    /** How long an idle connection is kept before it is closed. */
+    private long keepAliveMs = 5 * 60 * 1000;
+
+    /**
+     * Size bound of the on-disk response cache under {@code <cache.base-dir>/github-http}; cached
+     * responses are revalidated with their ETag, and a 304 does not count against the rate limit.
+     */
+    private long cacheMaxBytes = 50L * 1024 * 1024;
+  }
 }
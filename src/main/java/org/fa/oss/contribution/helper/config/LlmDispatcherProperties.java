@@ -0,0 +1,26 @@
+package org.fa.oss.contribution.helper.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "llm.dispatcher")
+@Data
+public class LlmDispatcherProperties {
+
+  /** Number of in-flight LLM requests allowed when the dispatcher starts. */
+  private int initialConcurrency = 4;
+
+  /** Lower bound the concurrency limit never backs off below. */
+  private int minConcurrency = 1;
+
+  /** Upper bound for the concurrency limit, also the size of the worker pool. */
+  private int maxConcurrency = 32;
+
+  /** Requests slower than this are treated as a sign that the pod is saturated. */
+  private long latencyThresholdMs = 30_000;
+
+  /** Factor applied to the limit on saturation (multiplicative decrease). */
+  private double backoffRatio = 0.5;
+}
@@ -15,5 +15,38 @@ public class RunPodConfig {
   private String vllmApiKey;
   private String vllmPodId;
 
+  /** Overrides the RunPod proxy address of the vLLM server, e.g. for a local stand-in. */
+  private String vllmBaseUrl;
+
   private String selfPodId;
+
+  /** Keep the pod running this long after the last lease is released; 0 stops it right away. */
+  private long idleKeepWarmMs = 600000;
+
+  /** How long and how often to probe the vLLM server after the pod is started. */
+  private Readiness readiness = new Readiness();
+
+  public String getVllmBaseUrl() {
+    if (vllmBaseUrl != null && !vllmBaseUrl.isBlank()) {
+      return vllmBaseUrl;
+    }
+    return "https://" + vllmPodId + "-8000.proxy.runpod.net";
+  }
+
+  @Getter
+  @Setter
+  public static class Readiness {
+
+    /** Wait before the second probe; doubled after every failed probe. */
+    private long initialBackoffMs = 1000;
+
+    /** Upper bound of the wait between two probes. */
+    private long maxBackoffMs = 15000;
+
+    /** Timeout of a single probe request. */
+    private long probeTimeoutMs = 5000;
+
+    /** Give up when the pod and its model are not ready within this time after the start. */
+    private long deadlineMs = 900000;
+  }
 }
@@ -0,0 +1,71 @@
+package org.fa.oss.contribution.helper.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "summary")
+@Data
+public class SummaryProperties {
+
+  /** Reuse stored summaries of issues whose fingerprint has not changed since the last run. */
+  private boolean incremental = true;
+
+  /** Resume an interrupted scheduled run from the summaries already recorded in its journal. */
+  private boolean resumeFromJournal = true;
+
+  /** Context window of models without an entry in contextTokenLimits. */
+  private int defaultContextTokenLimit = 8192;
+
+  /** Context window per model name; oversized prompts are compacted to fit. */
+  private Map<String, Integer> contextTokenLimits = new HashMap<>();
+
+  /** Tokens of the context window left free for the model's summarizeIssue call. */
+  private int completionReserveTokens = 1024;
+
+  /**
+   * Tokens of the context window left free for the system message and the tool schema, which the
+   * server adds to every prompt.
+   */
+  private int toolReserveTokens = 512;
+
+  /** Share of the prompt budget reserved for the start of the description when compacting. */
+  private double descriptionBudgetShare = 0.4;
+
+  /** Upper bound of prompt token counts kept in token-counts.json between runs. */
+  private int tokenCountCacheEntries = 50000;
+
+  /** Chat completions in flight at once for a streamed summary request. */
+  private int streamConcurrency = 8;
+
+  /** Packing of several small issues into one chat completion. */
+  private Batch batch = new Batch();
+
+  public int getContextTokenLimit(String model) {
+    return contextTokenLimits.getOrDefault(model, defaultContextTokenLimit);
+  }
+
+  /** Tokens a prompt for {@code model} may take: its context window minus both reserves. */
+  public int getPromptTokenLimit(String model) {
+    return getContextTokenLimit(model) - completionReserveTokens - toolReserveTokens;
+  }
+
+  @Data
+  public static class Batch {
+
+    /** Send small issues in multi-issue requests instead of one request per issue. */
+    private boolean enabled = false;
+
+    /** Upper bound of prompt tokens for one batched request, instructions included. */
+    private int tokenBudget = 6144;
+
+    /** Upper bound of issues packed into one request. */
+    private int maxIssuesPerBatch = 8;
+
+    /** Issues above this many tokens are always sent on their own. */
+    private int smallIssueTokens = 1024;
+  }
+}
@@ -3,4 +3,19 @@ package org.fa.oss.contribution.helper.constants;
 public class Github {
 
   public static final int PAGE_SIZE = 100;
+
+  public static final String GOOD_FIRST_ISSUE_LABEL = "good first issue";
+
+  public static final String GOOD_FIRST_ISSUE_QUERY =
+      "label:\"good first issue\" state:open is:issue";
+
+  /** Also matches issues closed since, so they can be dropped from an earlier harvest. */
+  public static final String GOOD_FIRST_ISSUE_ANY_STATE_QUERY =
+      "label:\"good first issue\" is:issue";
+
+  /** GitHub search returns no more than this many results for one query. */
+  public static final int SEARCH_RESULT_LIMIT = 1000;
+
+  public static final String INGESTION_ENGINE_REST = "rest";
+  public static final String INGESTION_ENGINE_GRAPHQL = "graphql";
 }
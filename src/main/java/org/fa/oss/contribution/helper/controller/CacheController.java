@@ -4,7 +4,9 @@ import java.util.Map;
 import org.fa.oss.contribution.helper.cache.BannersCache;
 import org.fa.oss.contribution.helper.cache.IssuesCache;
 import org.fa.oss.contribution.helper.cache.SummariesCache;
+import org.fa.oss.contribution.helper.cache.SummaryResultCache;
 import org.fa.oss.contribution.helper.dto.request.CacheTtlUpdateRequest;
+import org.fa.oss.contribution.helper.dto.response.SummaryResultCacheStatsDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,13 +18,18 @@ public class CacheController {
   private final IssuesCache issuesCache;
   private final SummariesCache summariesCache;
   private final BannersCache bannersCache;
+  private final SummaryResultCache summaryResultCache;
 
   @Autowired
   public CacheController(
-      IssuesCache issuesCache, SummariesCache summariesCache, BannersCache bannersCache) {
+      IssuesCache issuesCache,
+      SummariesCache summariesCache,
+      BannersCache bannersCache,
+      SummaryResultCache summaryResultCache) {
     this.issuesCache = issuesCache;
     this.summariesCache = summariesCache;
     this.bannersCache = bannersCache;
+    this.summaryResultCache = summaryResultCache;
   }
 
   // View TTLs
@@ -53,4 +60,10 @@ public class CacheController {
     }
     return ResponseEntity.ok("TTL updated for " + req.cacheName);
   }
+
+  // Hits, misses and the LLM time saved by the summary result cache
+  @GetMapping("/summary-results/stats")
+  public SummaryResultCacheStatsDTO getSummaryResultStats() {
+    return summaryResultCache.getStats();
+  }
 }
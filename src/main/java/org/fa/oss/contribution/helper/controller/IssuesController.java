@@ -1,7 +1,12 @@
 package org.fa.oss.contribution.helper.controller;
 
 import java.util.List;
+import java.util.Map;
+import org.fa.oss.contribution.helper.dto.response.IngestionStatsDTO;
 import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.fa.oss.contribution.helper.dto.response.RateLimitBucketDTO;
+import org.fa.oss.contribution.helper.service.GitHubIoExecutor;
+import org.fa.oss.contribution.helper.service.GitHubRequestScheduler;
 import org.fa.oss.contribution.helper.service.IssuesService;
 import org.fa.oss.contribution.helper.service.SummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,9 +22,24 @@ public class IssuesController {
 
   @Autowired private SummaryService summaryService;
 
+  @Autowired private GitHubIoExecutor gitHubIoExecutor;
+
+  @Autowired private GitHubRequestScheduler gitHubRequestScheduler;
+
   @GetMapping("/issues")
   public List<IssueDTO> getIssues() {
-    List<IssueDTO> issues = issuesService.getIssues();
-    return issues.stream().toList();
+    return issuesService.getIssues();
+  }
+
+  /** Throughput and per-item latency of the last GitHub fetch of each ingestion phase. */
+  @GetMapping("/issues/ingestion-stats")
+  public Map<String, IngestionStatsDTO> getIngestionStats() {
+    return gitHubIoExecutor.getLastStats();
+  }
+
+  /** What GitHub last reported for each rate limit bucket, and how much requests were paced. */
+  @GetMapping("/issues/rate-limits")
+  public List<RateLimitBucketDTO> getRateLimits() {
+    return gitHubRequestScheduler.getStats();
   }
 }
@@ -0,0 +1,29 @@
+package org.fa.oss.contribution.helper.controller;
+
+import org.fa.oss.contribution.helper.dto.response.PodLeaseStatsDTO;
+import org.fa.oss.contribution.helper.dto.response.PodReadinessDTO;
+import org.fa.oss.contribution.helper.service.PodLeaseManager;
+import org.fa.oss.contribution.helper.service.RunPodManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/pod")
+public class PodController {
+
+  @Autowired private RunPodManager runPodManager;
+
+  @Autowired private PodLeaseManager podLeaseManager;
+
+  @GetMapping("/readiness")
+  public ResponseEntity<PodReadinessDTO> getReadiness() {
+    PodReadinessDTO readiness = runPodManager.getLastReadiness();
+    return readiness != null ? ResponseEntity.ok(readiness) : ResponseEntity.noContent().build();
+  }
+
+  @GetMapping("/lease")
+  public PodLeaseStatsDTO getLeaseStats() {
+    return podLeaseManager.getStats();
+  }
+}
@@ -1,34 +1,109 @@
 package org.fa.oss.contribution.helper.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.cache.SummarySnapshots;
 import org.fa.oss.contribution.helper.dto.response.IssueDTO;
 import org.fa.oss.contribution.helper.dto.response.IssueSummaryResultListDTO;
+import org.fa.oss.contribution.helper.dto.response.LlmDispatchStatsDTO;
+import org.fa.oss.contribution.helper.model.IssueSummary;
+import org.fa.oss.contribution.helper.service.LlmDispatcher;
 import org.fa.oss.contribution.helper.service.SummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/summaries")
 @Slf4j
 public class SummaryController {
 
+  // Request attributes of Tomcat's sendfile support
+  private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
   @Autowired private SummaryService summaryService;
 
+  @Autowired private SummarySnapshots summarySnapshots;
+
+  @Autowired private LlmDispatcher llmDispatcher;
+
+  /**
+   * The published summaries snapshot, gzipped for clients that accept it. A client already holding
+   * the snapshot gets a 304; otherwise the file is handed to Tomcat's sendfile, or copied with
+   * {@link FileChannel#transferTo} where sendfile is not available.
+   */
   @GetMapping
-  public ResponseEntity<String> getCachedSummaries(
+  public void getCachedSummaries(
       @RequestParam(defaultValue = "0") int limit,
-      @RequestParam(defaultValue = "true") boolean raw) {
-    String rawJson = "{}";
-    try {
-      rawJson = summaryService.generateSummariesRaw(limit);
-    } catch (IOException e) {
-      log.error("Failed in fetching Raw summary", e);
+      @RequestParam(defaultValue = "true") boolean raw,
+      WebRequest webRequest,
+      HttpServletRequest request,
+      HttpServletResponse response)
+      throws IOException {
+    SummarySnapshots.Snapshot snapshot = summarySnapshots.current();
+    if (snapshot == null) {
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      response.getWriter().write("{}");
+      return;
+    }
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    Path file = gzip ? snapshot.gzip() : snapshot.json();
+    long length = gzip ? snapshot.gzipLength() : snapshot.jsonLength();
+    String etag = gzip ? snapshot.gzipEtag() : snapshot.jsonEtag();
+    // Sets ETag and Last-Modified of the variant served, and the 304 status when the client's copy
+    // of that variant is current
+    if (webRequest.checkNotModified(etag, snapshot.lastModified().toEpochMilli())) {
+      return;
+    }
+
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    response.setContentLengthLong(length);
+
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+      request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+      request.setAttribute(SENDFILE_START, 0L);
+      request.setAttribute(SENDFILE_END, length);
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(file)) {
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = 0;
+      while (position < length) {
+        position += channel.transferTo(position, length - position, out);
+      }
     }
-    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(rawJson);
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
   }
 
   @GetMapping("/refresh")
@@ -40,4 +115,23 @@ public class SummaryController {
   public IssueSummaryResultListDTO getSummary(@RequestBody List<IssueDTO> issueDTO) {
     return summaryService.generateSummary(issueDTO);
   }
+
+  /** Server-sent events, one {@code summary} event per issue in completion order. */
+  @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<IssueSummary>> streamSummaries(@RequestBody List<IssueDTO> issueDTO) {
+    return summaryService
+        .streamSummaries(issueDTO)
+        .map(
+            summary ->
+                ServerSentEvent.builder(summary)
+                    .event("summary")
+                    .id(String.valueOf(summary.getIssueDTO().getId()))
+                    .build());
+  }
+
+  @GetMapping("/dispatch-stats")
+  public ResponseEntity<LlmDispatchStatsDTO> getDispatchStats() {
+    LlmDispatchStatsDTO stats = llmDispatcher.getLastStats();
+    return stats != null ? ResponseEntity.ok(stats) : ResponseEntity.noContent().build();
+  }
 }
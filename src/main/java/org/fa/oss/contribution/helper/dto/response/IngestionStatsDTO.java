@@ -0,0 +1,14 @@
+package org.fa.oss.contribution.helper.dto.response;
+
+public record IngestionStatsDTO(
+    String phase,
+    String executor,
+    int concurrency,
+    int rateLimitRemaining,
+    int items,
+    int failures,
+    long elapsedMillis,
+    double itemsPerSecond,
+    long p50Millis,
+    long p95Millis,
+    long maxMillis) {}
@@ -0,0 +1,11 @@
+package org.fa.oss.contribution.helper.dto.response;
+
+public record LlmDispatchStatsDTO(
+    String run,
+    long requests,
+    long failures,
+    long tokens,
+    long elapsedMillis,
+    double requestsPerSecond,
+    double tokensPerSecond,
+    int concurrencyLimit) {}
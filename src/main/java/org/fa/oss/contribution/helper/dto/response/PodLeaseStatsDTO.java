@@ -0,0 +1,9 @@
+package org.fa.oss.contribution.helper.dto.response;
+
+public record PodLeaseStatsDTO(
+    String state,
+    int activeLeases,
+    long coldStarts,
+    long coldStartsAvoided,
+    double idleMinutes,
+    long idleKeepWarmMs) {}
@@ -0,0 +1,9 @@
+package org.fa.oss.contribution.helper.dto.response;
+
+public record PodReadinessDTO(
+    String podId,
+    long startedAt,
+    long podRunningMillis,
+    long modelReadyMillis,
+    int probes,
+    String model) {}
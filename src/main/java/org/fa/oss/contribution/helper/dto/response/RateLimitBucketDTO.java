@@ -0,0 +1,12 @@
+package org.fa.oss.contribution.helper.dto.response;
+
+public record RateLimitBucketDTO(
+    String bucket,
+    int limit,
+    int remaining,
+    String resetsAt,
+    String pausedUntil,
+    long requests,
+    long pacedRequests,
+    long waitedMillis,
+    long throttled) {}
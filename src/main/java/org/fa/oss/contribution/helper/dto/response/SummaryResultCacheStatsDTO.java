@@ -0,0 +1,10 @@
+package org.fa.oss.contribution.helper.dto.response;
+
+public record SummaryResultCacheStatsDTO(
+    long hits,
+    long misses,
+    double hitRatio,
+    int memoryEntries,
+    int diskEntries,
+    long diskBytes,
+    long savedGenerationMillis) {}
@@ -0,0 +1,21 @@
+package org.fa.oss.contribution.helper.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HarvestState {
+  /** Start of the last harvest whose issues were saved; the next delta searches from here. */
+  Instant lastSuccessfulRunAt;
+
+  Instant lastFullReconcileAt;
+
+  /** {@code full} or {@code delta}. */
+  String lastRunMode;
+}
@@ -0,0 +1,16 @@
+package org.fa.oss.contribution.helper.model;
+
+import java.time.Instant;
+import java.util.List;
+import org.kohsuke.github.GHIssue;
+
+/**
+ * One fetch of the good first issue search. Never changes once built; a refresh produces a new
+ * snapshot with the next {@code version}.
+ */
+public record IssueSnapshot(long version, Instant fetchedAt, List<GHIssue> issues) {
+
+  public IssueSnapshot {
+    issues = List.copyOf(issues);
+  }
+}
@@ -15,4 +15,5 @@ public class IssueSummary {
   IssueDTO issueDTO;
   SummaryDTO summary;
   long updatedAt;
+  String fingerprint;
 }
@@ -1,5 +1,6 @@
 package org.fa.oss.contribution.helper.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,7 +16,10 @@ public class OpenAIChatCompletionRequest {
   public String model;
   public List<Message> messages;
   public List<Tool> tools;
-  public ToolChoice tool_choice;
+  public Object tool_choice;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public Boolean parallel_tool_calls;
 
   public static class Message {
     public String role;
@@ -52,10 +56,14 @@ public class OpenAIChatCompletionRequest {
     public String name;
   }
 
+  public static final String DEFAULT_MODEL = "meta-llama/Meta-Llama-3-8B-Instruct";
+
+  public static final String BATCH_ISSUE_NUMBER_PROPERTY = "issueNumber";
+
   public static OpenAIChatCompletionRequest getDefaultChatRequest(String prompt) {
     // Root object
     OpenAIChatCompletionRequest request = new OpenAIChatCompletionRequest();
-    request.model = "meta-llama/Meta-Llama-3-8B-Instruct";
+    request.model = DEFAULT_MODEL;
 
     // Messages
     OpenAIChatCompletionRequest.Message systemMessage = new OpenAIChatCompletionRequest.Message();
@@ -69,6 +77,63 @@ public class OpenAIChatCompletionRequest {
 
     request.messages = Arrays.asList(systemMessage, userMessage);
 
+    request.tools = Collections.singletonList(summarizeIssueTool(summaryProperties()));
+
+    // Tool choice
+    OpenAIChatCompletionRequest.FunctionRef functionRef =
+        new OpenAIChatCompletionRequest.FunctionRef();
+    functionRef.name = "summarizeIssue";
+
+    OpenAIChatCompletionRequest.ToolChoice toolChoice =
+        new OpenAIChatCompletionRequest.ToolChoice();
+    toolChoice.type = "function";
+    toolChoice.function = functionRef;
+
+    request.tool_choice = toolChoice;
+
+    return request;
+  }
+
+  /**
+   * Request carrying several issues in one prompt. The tool gains an {@code issueNumber} argument
+   * and the model is asked for one {@code summarizeIssue} call per issue, so the shared
+   * instructions and tool schema are only paid for once per batch.
+   */
+  public static OpenAIChatCompletionRequest getBatchChatRequest(String prompt) {
+    OpenAIChatCompletionRequest request = new OpenAIChatCompletionRequest();
+    request.model = DEFAULT_MODEL;
+
+    OpenAIChatCompletionRequest.Message systemMessage = new OpenAIChatCompletionRequest.Message();
+    systemMessage.role = "system";
+    systemMessage.content =
+        "You are a helpful assistant that replies only with function calls according to the function definition. Call the function exactly once for every issue you are given.";
+
+    OpenAIChatCompletionRequest.Message userMessage = new OpenAIChatCompletionRequest.Message();
+    userMessage.role = "user";
+    userMessage.content = prompt;
+
+    request.messages = Arrays.asList(systemMessage, userMessage);
+
+    Map<String, OpenAIChatCompletionRequest.Property> properties = summaryProperties();
+    OpenAIChatCompletionRequest.Property issueNumberProp =
+        new OpenAIChatCompletionRequest.Property();
+    issueNumberProp.type = "integer";
+    issueNumberProp.description = "The number shown in the header of the issue being summarized";
+    properties.put(BATCH_ISSUE_NUMBER_PROPERTY, issueNumberProp);
+
+    OpenAIChatCompletionRequest.Tool tool = summarizeIssueTool(properties);
+    List<String> required = new ArrayList<>(tool.function.parameters.required);
+    required.add(0, BATCH_ISSUE_NUMBER_PROPERTY);
+    tool.function.parameters.required = required;
+
+    request.tools = Collections.singletonList(tool);
+    request.tool_choice = "required";
+    request.parallel_tool_calls = true;
+
+    return request;
+  }
+
+  private static Map<String, OpenAIChatCompletionRequest.Property> summaryProperties() {
     // Tool Function Parameters
     Map<String, OpenAIChatCompletionRequest.Property> properties = new HashMap<>();
 
@@ -93,6 +158,11 @@ public class OpenAIChatCompletionRequest {
     notesProp.description = "Additional context or comments that may help the contributor";
     properties.put("otherNotes", notesProp);
 
+    return properties;
+  }
+
+  private static OpenAIChatCompletionRequest.Tool summarizeIssueTool(
+      Map<String, OpenAIChatCompletionRequest.Property> properties) {
     OpenAIChatCompletionRequest.Parameters parameters =
         new OpenAIChatCompletionRequest.Parameters();
     parameters.type = "object";
@@ -109,20 +179,6 @@ public class OpenAIChatCompletionRequest {
     tool.type = "function";
     tool.function = function;
 
-    request.tools = Collections.singletonList(tool);
-
-    // Tool choice
-    OpenAIChatCompletionRequest.FunctionRef functionRef =
-        new OpenAIChatCompletionRequest.FunctionRef();
-    functionRef.name = "summarizeIssue";
-
-    OpenAIChatCompletionRequest.ToolChoice toolChoice =
-        new OpenAIChatCompletionRequest.ToolChoice();
-    toolChoice.type = "function";
-    toolChoice.function = functionRef;
-
-    request.tool_choice = toolChoice;
-
-    return request;
+    return tool;
   }
 }
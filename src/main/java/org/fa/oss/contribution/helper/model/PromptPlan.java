@@ -0,0 +1,13 @@
+package org.fa.oss.contribution.helper.model;
+
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+
+/**
+ * The prompt of one issue as it will be sent, built and counted once per run.
+ *
+ * @param sectionTokens tokens of the issue specific part of the prompt, used to estimate its size
+ *     inside a batched prompt
+ * @param compacted whether the prompt was shrunk to fit the context window
+ */
+public record PromptPlan(
+    IssueDTO issue, String prompt, int tokenCount, int sectionTokens, boolean compacted) {}
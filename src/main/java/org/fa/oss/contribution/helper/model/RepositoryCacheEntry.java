@@ -0,0 +1,18 @@
+package org.fa.oss.contribution.helper.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.fa.oss.contribution.helper.dto.response.RepositoryDTO;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RepositoryCacheEntry {
+  RepositoryDTO repository;
+  String repositoryEtag;
+  String languagesEtag;
+  long validatedAt;
+}
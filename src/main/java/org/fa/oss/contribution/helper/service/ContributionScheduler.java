@@ -14,7 +14,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import org.fa.oss.contribution.helper.config.ContributionSchedulerProperties;
-import org.fa.oss.contribution.helper.config.GithubConfig;
 import org.fa.oss.contribution.helper.config.RunPodConfig;
 import org.fa.oss.contribution.helper.dto.response.SchedulerStatusDTO;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +23,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class ContributionScheduler {
 
+  private static final String LOGS_REPO = "gshubhamCode/oss-captain-api-logs";
+
   private SummaryService summaryService;
   private IssuesService issueService;
   private RunPodManager runPodManager;
@@ -32,7 +33,9 @@ public class ContributionScheduler {
 
 
   @Autowired
-  private GithubConfig githubConfig;
+  private GitHubUploader gitHubUploader;
+  @Autowired
+  private PodLeaseManager podLeaseManager;
   private final AtomicBoolean isRunning = new AtomicBoolean(false);
   private final ContributionSchedulerProperties contributionSchedulerProperties;
 
@@ -133,7 +136,6 @@ public class ContributionScheduler {
   }
 
   private void runJob() {
-    GitHubUploader gitHubUploader = null;
     String targetPath = generateLogTargetPath();
     String commitMessage = "Scheduled job logs upload " + targetPath;
 
@@ -156,13 +158,14 @@ public class ContributionScheduler {
       // Upload logs before deleting pod
       try {
         log.info("Uploading logs before deleting pod...");
-        gitHubUploader = new GitHubUploader( githubConfig.getToken(), "gshubhamCode/oss-captain-api-logs");
-        gitHubUploader.uploadFolderInZip("./logs", targetPath, commitMessage);
+        gitHubUploader.uploadFolderInZip(LOGS_REPO, "./logs", targetPath, commitMessage);
         log.info("Logs upload complete.");
       } catch (Exception e) {
         log.error("Error uploading logs before pod deletion", e);
       }
 
+      // Deleting this pod would cancel the keep-warm stop of the vLLM pod, so stop it first
+      podLeaseManager.stopNowIfIdle();
       runPodManager.deletePod(runPodConfig.getSelfPodId());
 
     } catch (Exception e) {
@@ -170,7 +173,7 @@ public class ContributionScheduler {
       // Upload logs before deleting pod
       try {
         log.info("Uploading logs before deleting pod...");
-        gitHubUploader.uploadFolderInZip("./logs", targetPath, commitMessage);
+        gitHubUploader.uploadFolderInZip(LOGS_REPO, "./logs", targetPath, commitMessage);
         log.info("Logs upload complete.");
       } catch (Exception ex) {
         log.error("Error uploading logs before pod deletion", ex);
@@ -1,10 +1,19 @@
 package org.fa.oss.contribution.helper.service;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import org.fa.oss.contribution.helper.config.GithubConfig;
 import org.fa.oss.contribution.helper.constants.Github;
+import org.fa.oss.contribution.helper.model.IssueSnapshot;
 import org.kohsuke.github.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,36 +24,167 @@ public class GHIssueService {
 
   @Autowired private GithubConfig githubConfig;
 
-  private List<GHIssue> issues;
-  private long lastFetchTime = 0L;
+  @Autowired private GitHubRequestScheduler gitHubRequestScheduler;
+
+  @Autowired private PartitionedIssueSearch partitionedIssueSearch;
+
+  @Autowired private GitHub github;
+
+  private volatile IssueSnapshot snapshot;
+  private final AtomicLong versions = new AtomicLong();
+  private final Object refreshLock = new Object();
+  private CompletableFuture<IssueSnapshot> inFlight;
+  private final ThreadLocal<IssueSnapshot> pinned = new ThreadLocal<>();
+
+  /** Restores the previous pin of the thread when closed. */
+  public interface Pin extends AutoCloseable {
+    IssueSnapshot snapshot();
+
+    @Override
+    void close();
+  }
 
   public List<GHIssue> getGHIssues() throws IOException {
-    log.info("Fetching GHIssues");
-    long now = System.currentTimeMillis();
-    long ttl = githubConfig.getIssuesTtlMillis();
+    return getSnapshot().issues();
+  }
 
-    if (issues == null || (now - lastFetchTime) > ttl) {
-      return forceRefreshIssues(); // auto-refresh if stale
+  /**
+   * The snapshot pinned by this thread, else the current one, refreshed first when older than
+   * {@code github.issues-ttl-millis}.
+   */
+  public IssueSnapshot getSnapshot() throws IOException {
+    IssueSnapshot pin = pinned.get();
+    if (pin != null) {
+      return pin;
     }
-
-    return issues;
+    IssueSnapshot current = snapshot;
+    if (!isFresh(current)) {
+      return refresh(current); // auto-refresh if stale
+    }
+    return current;
   }
 
   public List<GHIssue> forceRefreshIssues() throws IOException {
     log.info("Fetching issues using force refresh");
-    GitHub github = new GitHubBuilder().withOAuthToken(githubConfig.getToken()).build();
+    return refresh(snapshot).issues();
+  }
+
+  private boolean isFresh(IssueSnapshot current) {
+    return current != null
+        && Instant.now().toEpochMilli() - current.fetchedAt().toEpochMilli()
+            <= githubConfig.getIssuesTtlMillis();
+  }
+
+  /**
+   * Keeps returning the same snapshot to this thread until the pin is closed, so every step of a
+   * pipeline run sees one issue list even if the TTL expires or someone forces a refresh.
+   */
+  public Pin pin() throws IOException {
+    IssueSnapshot previous = pinned.get();
+    IssueSnapshot current = getSnapshot();
+    pinned.set(current);
+    log.info("Pinned issue snapshot v{} ({} issues)", current.version(), current.issues().size());
+    return new Pin() {
+      @Override
+      public IssueSnapshot snapshot() {
+        return current;
+      }
 
+      @Override
+      public void close() {
+        if (previous == null) {
+          pinned.remove();
+        } else {
+          pinned.set(previous);
+        }
+      }
+    };
+  }
+
+  /**
+   * Runs the search, or waits for the one already running: concurrent callers share a single fetch
+   * and get the same snapshot. A caller that saw {@code seen} gets the snapshot a search finished
+   * since then instead of starting another.
+   */
+  private IssueSnapshot refresh(IssueSnapshot seen) throws IOException {
+    CompletableFuture<IssueSnapshot> fetch;
+    boolean owner = false;
+    synchronized (refreshLock) {
+      IssueSnapshot current = snapshot;
+      if (inFlight == null && current != seen && isFresh(current)) {
+        return current;
+      }
+      if (inFlight == null) {
+        inFlight = new CompletableFuture<>();
+        owner = true;
+      }
+      fetch = inFlight;
+    }
+    if (!owner) {
+      log.info("Waiting for the issue search already in progress");
+      return await(fetch);
+    }
+
+    try {
+      List<GHIssue> issues = partitionedIssueSearch.search(github, Github.GOOD_FIRST_ISSUE_QUERY);
+      IssueSnapshot fetched = new IssueSnapshot(versions.incrementAndGet(), Instant.now(), issues);
+      snapshot = fetched;
+      log.info("Issue snapshot v{}: {} issues", fetched.version(), issues.size());
+      fetch.complete(fetched);
+      return fetched;
+    } catch (IOException | RuntimeException e) {
+      fetch.completeExceptionally(e);
+      throw e;
+    } finally {
+      synchronized (refreshLock) {
+        inFlight = null;
+      }
+    }
+  }
+
+  private static IssueSnapshot await(CompletableFuture<IssueSnapshot> fetch) throws IOException {
+    try {
+      return fetch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the issue search");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+      throw new IOException("Issue search failed", e.getCause());
+    }
+  }
+
+  /**
+   * Good first issues in any state updated at or after {@code since}, newest first, or empty when
+   * more issues changed than one search can return.
+   */
+  public Optional<List<GHIssue>> searchIssuesUpdatedSince(Instant since) throws IOException {
     PagedSearchIterable<GHIssue> results =
         github
             .searchIssues()
-            .q("label:\"good first issue\" state:open is:issue")
+            .q(
+                Github.GOOD_FIRST_ISSUE_ANY_STATE_QUERY
+                    + " updated:>="
+                    + since.truncatedTo(ChronoUnit.SECONDS))
             .sort(GHIssueSearchBuilder.Sort.UPDATED)
             .order(GHDirection.DESC)
-            .list();
-
-    issues = results.withPageSize(Github.PAGE_SIZE).toList();
-    lastFetchTime = System.currentTimeMillis();
+            .list()
+            .withPageSize(Github.PAGE_SIZE);
 
-    return issues;
+    try (GitHubRequestScheduler.Scope scope =
+        gitHubRequestScheduler.prioritize(GitHubRequestScheduler.Priority.HIGH)) {
+      // The first page fetched by the iterator also carries the total count
+      PagedIterator<GHIssue> iterator = results.iterator();
+      if (iterator.hasNext() && results.getTotalCount() > Github.SEARCH_RESULT_LIMIT) {
+        log.info(
+            "{} issues updated since {}, too many for one search", results.getTotalCount(), since);
+        return Optional.empty();
+      }
+      List<GHIssue> changed = new ArrayList<>();
+      iterator.forEachRemaining(changed::add);
+      return Optional.of(changed);
+    }
   }
 }
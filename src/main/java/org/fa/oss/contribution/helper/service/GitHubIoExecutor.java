@@ -0,0 +1,181 @@
+package org.fa.oss.contribution.helper.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.fa.oss.contribution.helper.dto.response.IngestionStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs blocking GitHub calls off the common ForkJoinPool. Tasks run on virtual threads when the JVM
+ * has them and on a fixed pool otherwise. A semaphore bounds the calls in flight per phase to one
+ * slot per {@code github.ingestion.requests-per-slot} remaining core API requests, as last reported
+ * to the {@link GitHubRequestScheduler}, clamped to the configured min and max, so a nearly
+ * exhausted rate limit is not burnt in a burst.
+ */
+@Slf4j
+@Component
+public class GitHubIoExecutor {
+
+  private final GithubConfig.Ingestion properties;
+  private final GitHubRequestScheduler scheduler;
+  private final ExecutorService executor;
+  private final String executorType;
+
+  private final Map<String, IngestionStatsDTO> lastStats = new ConcurrentHashMap<>();
+
+  @Autowired
+  public GitHubIoExecutor(GithubConfig githubConfig, GitHubRequestScheduler scheduler) {
+    this.properties = githubConfig.getIngestion();
+    this.scheduler = scheduler;
+    ExecutorService virtual = newVirtualThreadExecutor();
+    if (virtual != null) {
+      this.executor = virtual;
+      this.executorType = "virtual";
+    } else {
+      AtomicInteger threadCount = new AtomicInteger();
+      this.executor =
+          Executors.newFixedThreadPool(
+              properties.getMaxConcurrency(),
+              runnable -> {
+                Thread thread = new Thread(runnable, "github-io-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+      this.executorType = "fixed-" + properties.getMaxConcurrency();
+    }
+  }
+
+  /**
+   * Applies {@code mapper} to every item concurrently and returns the non-null results in input
+   * order. Items whose mapper throws are logged and skipped.
+   */
+  public <T, R> List<R> mapAll(String phase, List<T> items, Function<T, R> mapper) {
+    int remaining = scheduler.getRemaining(GitHubRequestScheduler.Bucket.CORE);
+    int concurrency = concurrencyFor(remaining);
+    if (remaining >= 0 && remaining < items.size()) {
+      log.warn(
+          "Only {} GitHub core requests left for {} {} items, expect rate limit waits",
+          remaining,
+          items.size(),
+          phase);
+    }
+
+    Semaphore slots = new Semaphore(concurrency);
+    long[] latencies = new long[items.size()];
+    AtomicInteger failures = new AtomicInteger();
+    long startNanos = System.nanoTime();
+    List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      int index = i;
+      T item = items.get(i);
+      futures.add(
+          CompletableFuture.supplyAsync(
+              () -> {
+                slots.acquireUninterruptibly();
+                long itemStart = System.nanoTime();
+                try {
+                  return mapper.apply(item);
+                } catch (RuntimeException e) {
+                  failures.incrementAndGet();
+                  log.error("Failed to fetch {} item {}", phase, item, e);
+                  return null;
+                } finally {
+                  latencies[index] = (System.nanoTime() - itemStart) / 1_000_000;
+                  slots.release();
+                }
+              },
+              executor));
+    }
+    List<R> results =
+        futures.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList();
+
+    IngestionStatsDTO stats =
+        stats(phase, concurrency, remaining, latencies, failures.get(), startNanos);
+    lastStats.put(phase, stats);
+    log.info(
+        "GitHub {} fetch: {} items in {} ms on {} threads (concurrency {}, {} failed), latency p50 {} ms, p95 {} ms, max {} ms",
+        phase,
+        stats.items(),
+        stats.elapsedMillis(),
+        executorType,
+        concurrency,
+        stats.failures(),
+        stats.p50Millis(),
+        stats.p95Millis(),
+        stats.maxMillis());
+    return results;
+  }
+
+  public Map<String, IngestionStatsDTO> getLastStats() {
+    return Map.copyOf(lastStats);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  int concurrencyFor(int rateLimitRemaining) {
+    if (rateLimitRemaining < 0) {
+      return properties.getMaxConcurrency();
+    }
+    int slots = rateLimitRemaining / Math.max(1, properties.getRequestsPerSlot());
+    return Math.max(
+        properties.getMinConcurrency(), Math.min(properties.getMaxConcurrency(), slots));
+  }
+
+  private IngestionStatsDTO stats(
+      String phase,
+      int concurrency,
+      int remaining,
+      long[] latencies,
+      int failures,
+      long startNanos) {
+    long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+    long[] sorted = latencies.clone();
+    Arrays.sort(sorted);
+    return new IngestionStatsDTO(
+        phase,
+        executorType,
+        concurrency,
+        remaining,
+        latencies.length,
+        failures,
+        elapsedMillis,
+        latencies.length / (elapsedMillis / 1000.0),
+        percentile(sorted, 0.50),
+        percentile(sorted, 0.95),
+        sorted.length > 0 ? sorted[sorted.length - 1] : 0);
+  }
+
+  private static long percentile(long[] sorted, double quantile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+  }
+
+  /** Executors.newVirtualThreadPerTaskExecutor() when running on a JVM that has it. */
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,339 @@
+package org.fa.oss.contribution.helper.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.fa.oss.contribution.helper.dto.response.RateLimitBucketDTO;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Paces every GitHub request of the application against the rate limits GitHub reports in its
+ * {@code X-RateLimit-*} headers. Search, core and GraphQL calls draw from separate buckets, as
+ * GitHub counts them separately.
+ *
+ * <p>While plenty of a bucket is left requests go out as they come. Below {@code
+ * github.rate-limit.pacing-threshold} of the limit they are spread evenly over the time until the
+ * reset, so a run slows down instead of bursting into 403s. The last {@code reserve-fraction} of
+ * each bucket is kept for {@link Priority#HIGH} requests, and waiting requests are served highest
+ * priority first. A 403 or 429 from a rate limit pauses the whole bucket until Retry-After or the
+ * reset.
+ */
+@Slf4j
+@Component
+public class GitHubRequestScheduler {
+
+  public enum Bucket {
+    CORE(5000, 3_600_000),
+    SEARCH(30, 60_000),
+    GRAPHQL(5000, 3_600_000);
+
+    /** Limit and window assumed until GitHub has reported the real ones. */
+    private final int defaultLimit;
+
+    private final long windowMillis;
+
+    Bucket(int defaultLimit, long windowMillis) {
+      this.defaultLimit = defaultLimit;
+      this.windowMillis = windowMillis;
+    }
+
+    /** Bucket of a request to {@code path} on the GitHub API. */
+    public static Bucket forPath(String path) {
+      if (path.startsWith("/search/")) {
+        return SEARCH;
+      }
+      return path.startsWith("/graphql") ? GRAPHQL : CORE;
+    }
+  }
+
+  /**
+   * HIGH for cheap calls other work waits on (search pages, repository details), LOW for work
+   * nothing waits on (uploads).
+   */
+  public enum Priority {
+    HIGH,
+    NORMAL,
+    LOW
+  }
+
+  /** Restores the previous priority of the thread when closed. */
+  public interface Scope extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private final GithubConfig.RateLimit properties;
+  private final Map<Bucket, BucketState> buckets = new EnumMap<>(Bucket.class);
+  private final ThreadLocal<Priority> priority = ThreadLocal.withInitial(() -> Priority.NORMAL);
+  private final GitHubConnector connector;
+
+  @Autowired
+  public GitHubRequestScheduler(GithubConfig githubConfig) {
+    this.properties = githubConfig.getRateLimit();
+    for (Bucket bucket : Bucket.values()) {
+      buckets.put(bucket, new BucketState(bucket));
+    }
+    this.connector = new SchedulingConnector(GitHubConnector.DEFAULT);
+  }
+
+  /** Runs the GitHub calls made by this thread at {@code priority} until the scope is closed. */
+  public Scope prioritize(Priority priority) {
+    Priority previous = this.priority.get();
+    this.priority.set(priority);
+    return () -> this.priority.set(previous);
+  }
+
+  /** Blocks until a request may be sent from {@code bucket} at the thread's priority. */
+  public void acquire(Bucket bucket) throws InterruptedIOException {
+    try {
+      buckets.get(bucket).acquire(priority.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for GitHub rate limit");
+    }
+  }
+
+  /** Feeds the rate limit headers and status of a GitHub response back into its bucket. */
+  public void update(Bucket bucket, int status, Function<String, String> header) {
+    buckets.get(bucket).update(status, header);
+  }
+
+  /** Requests left in {@code bucket} as last reported by GitHub, or -1 before any response. */
+  public int getRemaining(Bucket bucket) {
+    return buckets.get(bucket).reportedRemaining();
+  }
+
+  /** Connector for the GitHub client library that sends every request through this scheduler. */
+  public GitHubConnector connector() {
+    return connector;
+  }
+
+  /** Like {@link #connector()}, but sending through {@code delegate}. */
+  public GitHubConnector connector(GitHubConnector delegate) {
+    return new SchedulingConnector(delegate);
+  }
+
+  public List<RateLimitBucketDTO> getStats() {
+    return Arrays.stream(Bucket.values()).map(bucket -> buckets.get(bucket).stats()).toList();
+  }
+
+  private final class SchedulingConnector implements GitHubConnector {
+
+    private final GitHubConnector delegate;
+
+    private SchedulingConnector(GitHubConnector delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest request) throws IOException {
+      String path = request.url().getPath();
+      // Reading the rate limit is free and must not wait on it
+      if (path.equals("/rate_limit")) {
+        return delegate.send(request);
+      }
+      Bucket bucket = Bucket.forPath(path);
+      acquire(bucket);
+      GitHubConnectorResponse response = delegate.send(request);
+      update(bucket, response.statusCode(), response::header);
+      return response;
+    }
+  }
+
+  private record Ticket(Priority priority, long sequence) {}
+
+  private final class BucketState {
+
+    private final Bucket bucket;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Ticket> waiting =
+        new PriorityQueue<>(
+            Comparator.comparing(Ticket::priority).thenComparingLong(Ticket::sequence));
+
+    private long sequence;
+    private int limit;
+    private int remaining;
+    private boolean reported;
+    private long resetAtMillis;
+    private long pausedUntilMillis;
+    private long nextSlotMillis;
+
+    private long requests;
+    private long pacedRequests;
+    private long waitedMillis;
+    private long throttled;
+
+    private BucketState(Bucket bucket) {
+      this.bucket = bucket;
+      this.limit = bucket.defaultLimit;
+      this.remaining = bucket.defaultLimit;
+    }
+
+    void acquire(Priority priority) throws InterruptedException {
+      long startMillis = System.currentTimeMillis();
+      lock.lock();
+      Ticket ticket = new Ticket(priority, sequence++);
+      waiting.add(ticket);
+      try {
+        long delay;
+        while ((delay = waiting.peek() == ticket ? delayMillis(priority) : -1) != 0) {
+          if (delay < 0) {
+            changed.await();
+          } else {
+            changed.await(delay, TimeUnit.MILLISECONDS);
+          }
+        }
+        long now = System.currentTimeMillis();
+        if (now > startMillis) {
+          pacedRequests++;
+          waitedMillis += now - startMillis;
+        }
+        remaining--;
+        requests++;
+        nextSlotMillis = now + pacingIntervalMillis(priority, now);
+      } finally {
+        waiting.remove(ticket);
+        changed.signalAll();
+        lock.unlock();
+      }
+    }
+
+    /** 0 when the request at the head of the queue may go now, else how long to wait for it. */
+    private long delayMillis(Priority priority) {
+      long now = System.currentTimeMillis();
+      if (pausedUntilMillis > now) {
+        return pausedUntilMillis - now;
+      }
+      if (resetAtMillis == 0) {
+        // Nothing reported yet: assume a window that starts with the first request
+        resetAtMillis = now + bucket.windowMillis;
+      } else if (now >= resetAtMillis) {
+        // A new window started; the next response reports its real numbers
+        remaining = limit;
+        resetAtMillis = now + bucket.windowMillis;
+        nextSlotMillis = now;
+      }
+      if (remaining <= floor(priority)) {
+        return Math.max(1, resetAtMillis - now);
+      }
+      return Math.max(0, nextSlotMillis - now);
+    }
+
+    /** Spacing to the next request: none while above the pacing threshold. */
+    private long pacingIntervalMillis(Priority priority, long now) {
+      if (remaining > limit * properties.getPacingThreshold() || resetAtMillis <= now) {
+        return 0;
+      }
+      return (resetAtMillis - now) / Math.max(1, remaining - floor(priority));
+    }
+
+    private int floor(Priority priority) {
+      if (priority == Priority.HIGH) {
+        return 0;
+      }
+      return Math.max(1, (int) Math.ceil(limit * properties.getReserveFraction()));
+    }
+
+    void update(int status, Function<String, String> header) {
+      Integer reportedLimit = parse(header.apply("X-RateLimit-Limit"));
+      Integer reportedRemaining = parse(header.apply("X-RateLimit-Remaining"));
+      Integer reset = parse(header.apply("X-RateLimit-Reset"));
+      Integer retryAfter = parse(header.apply("Retry-After"));
+      long now = System.currentTimeMillis();
+      lock.lock();
+      try {
+        if (reportedLimit != null && reportedRemaining != null && reset != null) {
+          long reportedResetMillis = reset * 1000L;
+          // Responses of requests sent before others finished report more than is left locally
+          remaining =
+              reportedResetMillis != resetAtMillis || !reported
+                  ? reportedRemaining
+                  : Math.min(remaining, reportedRemaining);
+          limit = reportedLimit;
+          resetAtMillis = reportedResetMillis;
+          reported = true;
+        }
+        if (status == 403 || status == 429) {
+          long pauseMillis;
+          if (retryAfter != null) {
+            pauseMillis = retryAfter * 1000L;
+          } else if (reportedRemaining != null && reportedRemaining == 0 && resetAtMillis > now) {
+            pauseMillis = resetAtMillis - now;
+          } else if (status == 429) {
+            pauseMillis = properties.getSecondaryLimitWaitMs();
+          } else {
+            // A plain 403, such as a missing permission
+            return;
+          }
+          throttled++;
+          pausedUntilMillis = Math.max(pausedUntilMillis, now + pauseMillis);
+          log.warn(
+              "GitHub {} rate limit hit (status {}), pausing requests for {} s",
+              bucket,
+              status,
+              pauseMillis / 1000);
+        }
+      } finally {
+        changed.signalAll();
+        lock.unlock();
+      }
+    }
+
+    int reportedRemaining() {
+      lock.lock();
+      try {
+        return reported ? remaining : -1;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    RateLimitBucketDTO stats() {
+      lock.lock();
+      try {
+        return new RateLimitBucketDTO(
+            bucket.name().toLowerCase(),
+            limit,
+            remaining,
+            resetAtMillis > 0 ? Instant.ofEpochMilli(resetAtMillis).toString() : null,
+            pausedUntilMillis > System.currentTimeMillis()
+                ? Instant.ofEpochMilli(pausedUntilMillis).toString()
+                : null,
+            requests,
+            pacedRequests,
+            waitedMillis,
+            throttled);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private static Integer parse(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(value.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
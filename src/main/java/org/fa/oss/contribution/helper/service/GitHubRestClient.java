@@ -0,0 +1,79 @@
+package org.fa.oss.contribution.helper.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Duration;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Plain REST calls for the cases the GitHub client library does not cover, such as conditional
+ * requests. A 304 answer to {@code If-None-Match} does not count against the rate limit.
+ */
+@Component
+public class GitHubRestClient {
+
+  private final GithubConfig githubConfig;
+  private final ObjectMapper objectMapper;
+  private final GitHubRequestScheduler scheduler;
+  private final WebClient webClient;
+
+  @Autowired
+  public GitHubRestClient(
+      GithubConfig githubConfig, ObjectMapper objectMapper, GitHubRequestScheduler scheduler) {
+    this.githubConfig = githubConfig;
+    this.objectMapper = objectMapper;
+    this.scheduler = scheduler;
+    this.webClient = WebClient.builder().build();
+  }
+
+  /**
+   * Result of a conditional GET. {@code body} is null when the resource is unchanged or does not
+   * exist.
+   */
+  public record Conditional(int status, JsonNode body, String etag) {
+    public boolean notModified() {
+      return status == HttpStatus.NOT_MODIFIED.value();
+    }
+
+    public boolean notFound() {
+      return status == HttpStatus.NOT_FOUND.value();
+    }
+  }
+
+  public Conditional getIfNoneMatch(String path, String etag) throws IOException {
+    GitHubRequestScheduler.Bucket bucket = GitHubRequestScheduler.Bucket.forPath(path);
+    scheduler.acquire(bucket);
+    ResponseEntity<String> response =
+        webClient
+            .get()
+            .uri(githubConfig.getApiUrl() + path)
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + githubConfig.getToken())
+            .header(HttpHeaders.ACCEPT, "application/vnd.github+json")
+            .headers(
+                headers -> {
+                  if (etag != null) {
+                    headers.setIfNoneMatch(etag);
+                  }
+                })
+            .exchangeToMono(clientResponse -> clientResponse.toEntity(String.class))
+            .timeout(Duration.ofSeconds(30))
+            .block();
+    int status = response.getStatusCode().value();
+    scheduler.update(bucket, status, response.getHeaders()::getFirst);
+    if (status == HttpStatus.NOT_MODIFIED.value() || status == HttpStatus.NOT_FOUND.value()) {
+      return new Conditional(status, null, etag);
+    }
+    if (!response.getStatusCode().is2xxSuccessful()) {
+      throw new IOException("GitHub answered " + status + " for " + path);
+    }
+    return new Conditional(
+        status, objectMapper.readTree(response.getBody()), response.getHeaders().getETag());
+  }
+}
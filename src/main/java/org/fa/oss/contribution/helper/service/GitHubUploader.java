@@ -5,37 +5,60 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.kohsuke.github.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
 
+/** Commits files to GitHub repositories; each repository is looked up once and then reused. */
+@Component
 public class GitHubUploader {
 
   private final GitHub github;
-  private final GHRepository repo;
+  private final GitHubRequestScheduler scheduler;
+  private final Map<String, GHRepository> repositories = new ConcurrentHashMap<>();
 
+  @Autowired
+  public GitHubUploader(GitHub github, GitHubRequestScheduler scheduler) {
+    this.github = github;
+    this.scheduler = scheduler;
+  }
 
-  public GitHubUploader(String token, String repoName) throws Exception {
-    this.github = new GitHubBuilder().withOAuthToken(token).build();
-    this.repo = github.getRepository(repoName);
+  private GHRepository repository(String repoName) throws IOException {
+    GHRepository repo = repositories.get(repoName);
+    if (repo == null) {
+      repo = github.getRepository(repoName);
+      repositories.put(repoName, repo);
+    }
+    return repo;
   }
 
-  public void uploadJsonFile(String localFilePath, String targetPath, String commitMessage)
+  public void uploadJsonFile(
+      String repoName, String localFilePath, String targetPath, String commitMessage)
       throws Exception {
     byte[] contentBytes = Files.readAllBytes(Path.of(localFilePath));
-    try {
-      GHContent file = repo.getFileContent(targetPath);
-      file.update(new String(contentBytes), commitMessage); // updates existing file
-    } catch (GHFileNotFoundException e) {
-      repo.createContent()
-          .path(targetPath)
-          .content(new String(contentBytes)) // creates new file if it doesn't exist
-          .message(commitMessage)
-          .commit();
+    GHRepository repo = repository(repoName);
+    try (GitHubRequestScheduler.Scope scope =
+        scheduler.prioritize(GitHubRequestScheduler.Priority.LOW)) {
+      try {
+        GHContent file = repo.getFileContent(targetPath);
+        file.update(new String(contentBytes), commitMessage); // updates existing file
+      } catch (GHFileNotFoundException e) {
+        repo.createContent()
+            .path(targetPath)
+            .content(new String(contentBytes)) // creates new file if it doesn't exist
+            .message(commitMessage)
+            .commit();
+      }
     }
   }
-  public void uploadFolderInZip(String folderPath, String targetPath, String commitMessage) throws Exception {
+  public void uploadFolderInZip(
+      String repoName, String folderPath, String targetPath, String commitMessage)
+      throws Exception {
     // Create temp zip file path
     Path tempZip = Files.createTempFile("logs-", ".zip");
 
@@ -44,7 +67,7 @@ public class GitHubUploader {
       zipFolder(folderPath, tempZip.toString());
 
       // Upload the zip file to GitHub
-      uploadFile(tempZip.toString(), targetPath, commitMessage);
+      uploadFile(repoName, tempZip.toString(), targetPath, commitMessage);
     } finally {
       // Clean up temp zip file
       Files.deleteIfExists(tempZip);
@@ -71,17 +94,23 @@ public class GitHubUploader {
     }
   }
 
-  public void uploadFile(String localFilePath, String targetPath, String commitMessage) throws Exception {
+  public void uploadFile(
+      String repoName, String localFilePath, String targetPath, String commitMessage)
+      throws Exception {
     byte[] contentBytes = Files.readAllBytes(Path.of(localFilePath));
-    try {
-      GHContent file = repo.getFileContent(targetPath);
-      file.update(contentBytes, commitMessage); // pass byte[] for update
-    } catch (GHFileNotFoundException e) {
-      repo.createContent()
-              .path(targetPath)
-              .content(contentBytes) // pass byte[] for create
-              .message(commitMessage)
-              .commit();
+    GHRepository repo = repository(repoName);
+    try (GitHubRequestScheduler.Scope scope =
+        scheduler.prioritize(GitHubRequestScheduler.Priority.LOW)) {
+      try {
+        GHContent file = repo.getFileContent(targetPath);
+        file.update(contentBytes, commitMessage); // pass byte[] for update
+      } catch (GHFileNotFoundException e) {
+        repo.createContent()
+            .path(targetPath)
+            .content(contentBytes) // pass byte[] for create
+            .message(commitMessage)
+            .commit();
+      }
     }
   }
 
@@ -0,0 +1,439 @@
+package org.fa.oss.contribution.helper.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.fa.oss.contribution.helper.constants.Github;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.fa.oss.contribution.helper.dto.response.OwnerDTO;
+import org.fa.oss.contribution.helper.dto.response.RepositoryDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Ingestion engine that reads issues, their comments and their repositories from paginated GitHub
+ * GraphQL searches instead of one REST call per issue and per repository. Produces the same {@link
+ * IssueDTO}s, with {@link IssueDTO#getRepository()} already filled in. A full harvest is split into
+ * the {@code created:} windows of {@link PartitionedIssueSearch}, so it is not cut off at the 1000
+ * results one search returns.
+ */
+@Service
+@Slf4j
+public class GraphQLIngestionService {
+
+  private static final int TEN_MB = 10 * 1024 * 1024;
+
+  private static final String SEARCH_QUERY =
+      """
+      query($query: String!, $first: Int!, $after: String, $comments: Int!) {
+        rateLimit { cost remaining }
+        search(query: $query, type: ISSUE, first: $first, after: $after) {
+          issueCount
+          pageInfo { hasNextPage endCursor }
+          nodes {
+            ... on Issue {
+              id
+              databaseId
+              title
+              url
+              body
+              updatedAt
+              state
+              author { login url avatarUrl }
+              labels(first: 50) { nodes { name } }
+              comments(first: $comments) {
+                pageInfo { hasNextPage endCursor }
+                nodes { body }
+              }
+              repository {
+                name
+                nameWithOwner
+                description
+                homepageUrl
+                url
+                sshUrl
+                isFork
+                isArchived
+                isDisabled
+                isPrivate
+                hasIssuesEnabled
+                forkCount
+                stargazerCount
+                diskUsage
+                pushedAt
+                owner { login }
+                watchers { totalCount }
+                issues(states: OPEN) { totalCount }
+                pullRequests(states: OPEN) { totalCount }
+                languages(first: 100, orderBy: {field: SIZE, direction: DESC}) {
+                  edges { size node { name } }
+                }
+              }
+            }
+          }
+        }
+      }
+      """;
+
+  private static final String COMMENTS_QUERY =
+      """
+      query($id: ID!, $first: Int!, $after: String) {
+        node(id: $id) {
+          ... on Issue {
+            comments(first: $first, after: $after) {
+              pageInfo { hasNextPage endCursor }
+              nodes { body }
+            }
+          }
+        }
+      }
+      """;
+
+  private final GithubConfig githubConfig;
+  private final ObjectMapper objectMapper;
+  private final GitHubRequestScheduler scheduler;
+  private final WebClient webClient;
+
+  @Autowired
+  public GraphQLIngestionService(
+      GithubConfig githubConfig, ObjectMapper objectMapper, GitHubRequestScheduler scheduler) {
+    this.githubConfig = githubConfig;
+    this.objectMapper = objectMapper;
+    this.scheduler = scheduler;
+    this.webClient =
+        WebClient.builder()
+            .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .exchangeStrategies(
+                ExchangeStrategies.builder()
+                    .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(TEN_MB))
+                    .build())
+            .build();
+  }
+
+  /** All open good first issues, newest update first, with comments and repository details. */
+  public List<IssueDTO> fetchGoodFirstIssues() {
+    return fetch(Github.GOOD_FIRST_ISSUE_QUERY, false);
+  }
+
+  /**
+   * Good first issues in any state updated at or after {@code since}, or empty when more issues
+   * changed than one search can return.
+   */
+  public Optional<List<IssueDTO>> fetchIssuesUpdatedSince(Instant since) {
+    return Optional.ofNullable(
+        fetch(
+            Github.GOOD_FIRST_ISSUE_ANY_STATE_QUERY
+                + " updated:>="
+                + since.truncatedTo(ChronoUnit.SECONDS),
+            true));
+  }
+
+  /** Issues, repositories and request counts collected by one fetch. */
+  private static final class Harvest {
+    private final Map<String, RepositoryDTO> repositories = new HashMap<>();
+    private final Map<Long, IssueDTO> issues = new LinkedHashMap<>();
+    private int pages;
+    private int requests;
+  }
+
+  /**
+   * Null when {@code capped} and the search matches more than GitHub returns. Otherwise the search
+   * is split into {@code created:} windows like {@link PartitionedIssueSearch} does, so that no
+   * window holds more than one search can return.
+   */
+  private List<IssueDTO> fetch(String query, boolean capped) {
+    long startNanos = System.nanoTime();
+    Harvest harvest = new Harvest();
+    int searched = 0;
+    int splits = 0;
+    if (capped) {
+      searched++;
+      int count = search(query, true, harvest);
+      if (count > Github.SEARCH_RESULT_LIMIT) {
+        log.info("{} issues match {}, too many for one search", count, query);
+        return null;
+      }
+    } else {
+      Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+      Deque<PartitionedIssueSearch.Window> windows = new ArrayDeque<>();
+      windows.add(
+          new PartitionedIssueSearch.Window(
+              githubConfig.getIngestion().getSearchPartitionStart(), now));
+      while (!windows.isEmpty()) {
+        PartitionedIssueSearch.Window window = windows.pollFirst();
+        searched++;
+        boolean splittable = window.seconds() > 1;
+        int count = search(query + " " + window.qualifier(), splittable, harvest);
+        if (count > Github.SEARCH_RESULT_LIMIT && splittable) {
+          splits++;
+          List<PartitionedIssueSearch.Window> parts = PartitionedIssueSearch.split(window, count);
+          for (int i = parts.size() - 1; i >= 0; i--) {
+            windows.addFirst(parts.get(i));
+          }
+        } else if (count > Github.SEARCH_RESULT_LIMIT) {
+          log.warn(
+              "{} issues created in {}, only the first {} are harvested",
+              count,
+              window,
+              Github.SEARCH_RESULT_LIMIT);
+        }
+      }
+    }
+
+    List<IssueDTO> sorted = new ArrayList<>(harvest.issues.values());
+    sorted.sort(
+        Comparator.comparing(
+            IssueDTO::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+    log.info(
+        "GraphQL ingestion: {} issues from {} repositories, {} searches ({} split), {} requests, {} ms",
+        sorted.size(),
+        harvest.repositories.size(),
+        searched,
+        splits,
+        harvest.requests,
+        (System.nanoTime() - startNanos) / 1_000_000);
+    return sorted;
+  }
+
+  /**
+   * Pages through {@code searchQuery}, oldest created first, into {@code harvest} and returns the
+   * number of matches. With {@code stopAboveLimit}, a search matching more than GitHub returns is
+   * left after its first page, whose issues are not kept.
+   */
+  private int search(String searchQuery, boolean stopAboveLimit, Harvest harvest) {
+    GithubConfig.Ingestion ingestion = githubConfig.getIngestion();
+    String cursor = null;
+    int count;
+    do {
+      Map<String, Object> variables = new HashMap<>();
+      // Creation times do not change while the pages are read, unlike update times
+      variables.put("query", searchQuery + " sort:created-asc");
+      variables.put("first", Math.min(100, ingestion.getGraphqlPageSize()));
+      variables.put("after", cursor);
+      variables.put("comments", ingestion.getGraphqlCommentsPerIssue());
+      JsonNode data = execute(SEARCH_QUERY, variables);
+      harvest.pages++;
+      harvest.requests++;
+
+      JsonNode search = data.path("search");
+      count = search.path("issueCount").asInt();
+      if (stopAboveLimit && count > Github.SEARCH_RESULT_LIMIT) {
+        return count;
+      }
+      for (JsonNode node : search.path("nodes")) {
+        if (!node.hasNonNull("databaseId")) {
+          continue;
+        }
+        List<String> comments = new ArrayList<>();
+        harvest.requests +=
+            collectComments(node.path("id").asText(), node.path("comments"), comments);
+        IssueDTO issue = mapIssue(node, comments);
+        issue.setRepository(
+            harvest.repositories.computeIfAbsent(
+                issue.getRepositoryName(), name -> mapRepository(node.path("repository"))));
+        // Windows share their boundaries with no issue, but a search can still repeat one
+        harvest.issues.putIfAbsent(issue.getId(), issue);
+      }
+      log.info(
+          "GraphQL page {}: {} issues so far, {} in this search, rate limit cost {}, remaining {}",
+          harvest.pages,
+          harvest.issues.size(),
+          count,
+          data.path("rateLimit").path("cost").asInt(),
+          data.path("rateLimit").path("remaining").asInt());
+
+      JsonNode pageInfo = search.path("pageInfo");
+      cursor =
+          pageInfo.path("hasNextPage").asBoolean() ? pageInfo.path("endCursor").asText() : null;
+    } while (cursor != null);
+    return count;
+  }
+
+  /** Adds the comments of {@code connection} and any further pages; returns the requests made. */
+  private int collectComments(String issueNodeId, JsonNode connection, List<String> comments) {
+    int requests = 0;
+    while (true) {
+      connection.path("nodes").forEach(comment -> comments.add(textOrNull(comment, "body")));
+      JsonNode pageInfo = connection.path("pageInfo");
+      if (!pageInfo.path("hasNextPage").asBoolean()) {
+        return requests;
+      }
+      Map<String, Object> variables = new HashMap<>();
+      variables.put("id", issueNodeId);
+      variables.put("first", 100);
+      variables.put("after", pageInfo.path("endCursor").asText());
+      connection = execute(COMMENTS_QUERY, variables).path("node").path("comments");
+      requests++;
+    }
+  }
+
+  private IssueDTO mapIssue(JsonNode node, List<String> comments) {
+    JsonNode author = node.path("author");
+    Set<String> labels = new LinkedHashSet<>();
+    node.path("labels").path("nodes").forEach(label -> labels.add(label.path("name").asText()));
+    return IssueDTO.builder()
+        .id(node.path("databaseId").asLong())
+        .url(textOrNull(node, "url"))
+        .title(textOrNull(node, "title"))
+        .description(textOrNull(node, "body"))
+        .repositoryName(node.path("repository").path("nameWithOwner").asText())
+        .updatedAt(
+            node.hasNonNull("updatedAt") ? Instant.parse(node.get("updatedAt").asText()) : null)
+        // Deleted accounts come back as a null author, REST reports them as "ghost"
+        .user(author.isMissingNode() || author.isNull() ? "ghost" : textOrNull(author, "login"))
+        .userHtmlUrl(textOrNull(author, "url"))
+        .userAvatarUrl(textOrNull(author, "avatarUrl"))
+        .labels(labels)
+        .comments(comments)
+        .state(textOrNull(node, "state"))
+        .build();
+  }
+
+  /** Same values the REST engine reads from {@code GHRepository}. */
+  private RepositoryDTO mapRepository(JsonNode repository) {
+    String fullName = repository.path("nameWithOwner").asText();
+    String htmlUrl = textOrNull(repository, "url");
+    Map<String, Long> languages = new LinkedHashMap<>();
+    repository
+        .path("languages")
+        .path("edges")
+        .forEach(
+            edge ->
+                languages.put(edge.path("node").path("name").asText(), edge.path("size").asLong()));
+    return RepositoryDTO.builder()
+        .description(textOrNull(repository, "description"))
+        .homepage(textOrNull(repository, "homepageUrl"))
+        .name(textOrNull(repository, "name"))
+        .fullName(fullName)
+        .htmlUrl(htmlUrl)
+        .gitUrl("git://github.com/" + fullName + ".git")
+        .sshUrl(textOrNull(repository, "sshUrl"))
+        .cloneUrl(htmlUrl != null ? htmlUrl + ".git" : null)
+        .owner(OwnerDTO.builder().login(repository.path("owner").path("login").asText()).build())
+        .hasIssues(repository.path("hasIssuesEnabled").asBoolean())
+        .fork(repository.path("isFork").asBoolean())
+        // Not exposed by GraphQL; REST reports true for every repository
+        .hasDownloads(true)
+        .archived(repository.path("isArchived").asBoolean())
+        .disabled(repository.path("isDisabled").asBoolean())
+        .isPrivate(repository.path("isPrivate").asBoolean())
+        .forksCount(repository.path("forkCount").asInt())
+        .stargazersCount(repository.path("stargazerCount").asInt())
+        // REST watchers_count is the star count, subscribers are GraphQL watchers
+        .watchersCount(repository.path("stargazerCount").asInt())
+        .size(repository.path("diskUsage").asInt())
+        .openIssuesCount(
+            repository.path("issues").path("totalCount").asInt()
+                + repository.path("pullRequests").path("totalCount").asInt())
+        .subscribersCount(repository.path("watchers").path("totalCount").asInt())
+        .pushedAt(textOrNull(repository, "pushedAt"))
+        .languages(languages)
+        .build();
+  }
+
+  private JsonNode execute(String query, Map<String, Object> variables) {
+    Map<String, Object> body = new HashMap<>();
+    body.put("query", query);
+    body.put("variables", variables);
+    ResponseEntity<String> response =
+        Mono.defer(
+                () -> {
+                  // Every attempt, retries included, waits for a permit of its own
+                  try {
+                    scheduler.acquire(GitHubRequestScheduler.Bucket.GRAPHQL);
+                  } catch (InterruptedIOException e) {
+                    return Mono.error(
+                        new IllegalStateException("Interrupted before GitHub GraphQL query", e));
+                  }
+                  return webClient
+                      .post()
+                      .uri(githubConfig.getIngestion().getGraphqlUrl())
+                      .header(HttpHeaders.AUTHORIZATION, "Bearer " + githubConfig.getToken())
+                      .bodyValue(body)
+                      .exchangeToMono(clientResponse -> clientResponse.toEntity(String.class))
+                      .timeout(Duration.ofSeconds(60))
+                      .map(this::checkStatus);
+                })
+            // acquire() blocks, also when a retry resubscribes on a timer thread
+            .subscribeOn(Schedulers.boundedElastic())
+            // GitHub answers 502 when a page takes too long to resolve
+            .retryWhen(
+                Retry.backoff(3, Duration.ofSeconds(2))
+                    .filter(
+                        throwable ->
+                            throwable instanceof TimeoutException
+                                || (throwable instanceof WebClientResponseException
+                                    && ((WebClientResponseException) throwable)
+                                        .getStatusCode()
+                                        .is5xxServerError()))
+                    .onRetryExhaustedThrow(
+                        (retryBackoffSpec, retrySignal) -> retrySignal.failure()))
+            .block();
+    try {
+      JsonNode root = objectMapper.readTree(response.getBody());
+      if (root.hasNonNull("errors") && !root.hasNonNull("data")) {
+        throw new IllegalStateException("GitHub GraphQL query failed: " + root.get("errors"));
+      }
+      if (root.hasNonNull("errors")) {
+        log.warn("GitHub GraphQL query returned partial data: {}", root.get("errors"));
+      }
+      return root.path("data");
+    } catch (IOException e) {
+      throw new IllegalStateException("Unreadable GitHub GraphQL response", e);
+    }
+  }
+
+  /**
+   * Reports every response to the scheduler, rate limited ones included, then fails on anything but
+   * a success.
+   */
+  private ResponseEntity<String> checkStatus(ResponseEntity<String> response) {
+    int status = response.getStatusCode().value();
+    scheduler.update(
+        GitHubRequestScheduler.Bucket.GRAPHQL, status, response.getHeaders()::getFirst);
+    if (!response.getStatusCode().is2xxSuccessful()) {
+      throw WebClientResponseException.create(
+          status,
+          "GitHub GraphQL query answered " + status,
+          response.getHeaders(),
+          response.getBody() != null
+              ? response.getBody().getBytes(StandardCharsets.UTF_8)
+              : new byte[0],
+          StandardCharsets.UTF_8);
+    }
+    return response;
+  }
+
+  private static String textOrNull(JsonNode node, String field) {
+    JsonNode value = node.path(field);
+    return value.isMissingNode() || value.isNull() ? null : value.asText();
+  }
+}
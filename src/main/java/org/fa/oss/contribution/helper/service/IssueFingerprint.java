@@ -0,0 +1,41 @@
+package org.fa.oss.contribution.helper.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+
+/** SHA-256 over the parts of an issue that end up in its summary prompt. */
+public class IssueFingerprint {
+
+  private static final byte SEPARATOR = 0;
+
+  public static String of(IssueDTO issue) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+    update(digest, issue.getTitle());
+    update(digest, issue.getDescription());
+    Set<String> labels = issue.getLabels() != null ? new TreeSet<>(issue.getLabels()) : Set.of();
+    update(digest, String.join(",", labels));
+    List<String> comments = issue.getComments() != null ? issue.getComments() : List.of();
+    update(digest, String.valueOf(comments.size()));
+    comments.forEach(comment -> update(digest, comment));
+    update(digest, issue.getUpdatedAt() != null ? issue.getUpdatedAt().toString() : null);
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    if (value != null) {
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update(SEPARATOR);
+  }
+}
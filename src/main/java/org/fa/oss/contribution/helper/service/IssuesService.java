@@ -1,12 +1,18 @@
 package org.fa.oss.contribution.helper.service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.fa.oss.contribution.helper.cache.CentralCacheService;
+import org.fa.oss.contribution.helper.cache.HarvestStateCache;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.fa.oss.contribution.helper.constants.Github;
 import org.fa.oss.contribution.helper.dto.response.IssueDTO;
 import org.fa.oss.contribution.helper.dto.response.RepositoryDTO;
+import org.fa.oss.contribution.helper.model.HarvestState;
 import org.kohsuke.github.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -20,9 +26,20 @@ public class IssuesService {
 
   @Autowired CentralCacheService centralCacheService;
 
+  @Autowired GitHubIoExecutor gitHubIoExecutor;
+
+  @Autowired GraphQLIngestionService graphQLIngestionService;
+
+  @Autowired GithubConfig githubConfig;
+
+  @Autowired HarvestStateCache harvestStateCache;
+
   public List<IssueDTO> searchGoodFirstIssues() throws IOException {
-    List<GHIssue> issuesList = ghIssueService.getGHIssues();
-    return issuesList.parallelStream().map(this::mapIssueToDTO).filter(Objects::nonNull).toList();
+    return mapIssues(ghIssueService.getGHIssues());
+  }
+
+  private List<IssueDTO> mapIssues(List<GHIssue> issuesList) {
+    return gitHubIoExecutor.mapAll("issues", issuesList, this::mapIssueToDTO);
   }
 
   public List<IssueDTO> getIssues() {
@@ -35,31 +52,37 @@ public class IssuesService {
     return generateIssues();
   }
 
+  /**
+   * Harvests good first issues and saves them to the issues cache. When {@code
+   * github.ingestion.incremental} is on and an earlier harvest was saved, only issues updated since
+   * that run are fetched and merged into it; every issue is harvested again on the first run, once
+   * {@code full-reconcile-interval-millis} has passed, or when too many issues changed.
+   */
   public List<IssueDTO> generateIssues() {
     try {
-      List<IssueDTO> issueDTOList = searchGoodFirstIssues();
-      log.info("Fetching repository details of issues");
-      Map<String, RepositoryDTO> repositories =
-          repositoryService.mapToRepositoryDTO(repositoryService.getRepositoryForIssues());
-      log.info("Fetch complete");
-
-      log.info("Mapping repo in Issues complete");
-      issueDTOList.forEach(
-          issue -> issue.setRepository(repositories.get(issue.getRepositoryName())));
+      Instant runStartedAt = Instant.now();
+      HarvestState state = harvestStateCache.load();
+      List<IssueDTO> previous = centralCacheService.getIssueCache().load();
 
-      log.info("Filtering issues from top repo");
+      boolean full = needsFullHarvest(state, previous, runStartedAt);
       List<IssueDTO> filteredIssues =
-          issueDTOList.parallelStream()
-              .filter(issueDTO -> Objects.nonNull(issueDTO.getRepository()))
-              .filter(
-                  issue ->
-                      issue.getRepository().getStargazersCount() > 15
-                          && issue.getRepository().getForksCount() > 10)
-              .collect(Collectors.toList());
-      log.info("Filter complete");
-
-      log.info("Save Issues in cache");
-      centralCacheService.getIssueCache().save(filteredIssues);
+          full ? null : harvestChanges(previous, state.getLastSuccessfulRunAt());
+      if (filteredIssues == null) {
+        full = true;
+        filteredIssues = filterTopRepositories(fetchAllIssues());
+      }
+
+      // A delta without changes hands back the cached list, which needs no rewrite
+      if (filteredIssues != previous) {
+        log.info("Save Issues in cache");
+        centralCacheService.getIssueCache().save(filteredIssues);
+      }
+      harvestStateCache.save(
+          HarvestState.builder()
+              .lastSuccessfulRunAt(runStartedAt)
+              .lastFullReconcileAt(full ? runStartedAt : state.getLastFullReconcileAt())
+              .lastRunMode(full ? "full" : "delta")
+              .build());
       log.info("Saved in cache");
 
       return filteredIssues;
@@ -69,15 +92,204 @@ public class IssuesService {
     }
   }
 
+  private boolean needsFullHarvest(
+      HarvestState state, List<IssueDTO> previous, Instant runStartedAt) {
+    GithubConfig.Ingestion ingestion = githubConfig.getIngestion();
+    String reason = null;
+    if (!ingestion.isIncremental()) {
+      reason = "incremental harvesting is off";
+    } else if (state == null
+        || state.getLastSuccessfulRunAt() == null
+        || state.getLastFullReconcileAt() == null
+        || previous == null) {
+      reason = "no earlier harvest";
+    } else if (Duration.between(state.getLastFullReconcileAt(), runStartedAt).toMillis()
+        >= ingestion.getFullReconcileIntervalMillis()) {
+      reason = "reconcile due, last one at " + state.getLastFullReconcileAt();
+    }
+    if (reason != null) {
+      log.info("Full harvest: {}", reason);
+    }
+    return reason != null;
+  }
+
+  private List<IssueDTO> fetchAllIssues() throws IOException {
+    if (Github.INGESTION_ENGINE_GRAPHQL.equals(githubConfig.getIngestion().getEngine())) {
+      log.info("Fetching issues with repository details over GraphQL");
+      return graphQLIngestionService.fetchGoodFirstIssues();
+    }
+    long phaseStart = System.currentTimeMillis();
+    // The whole run works on one issue list, even if a refresh lands meanwhile
+    try (GHIssueService.Pin pin = ghIssueService.pin()) {
+      List<GHIssue> ghIssues = pin.snapshot().issues();
+      log.info(
+          "Search phase: {} issues of snapshot v{} in {} ms",
+          ghIssues.size(),
+          pin.snapshot().version(),
+          elapsedSince(phaseStart));
+      return mapWithRepositories(ghIssues);
+    }
+  }
+
+  /**
+   * Merges the issues updated since {@code lastRunAt} into {@code previous}: every issue the search
+   * returned is replaced if it still passes the filters and dropped otherwise, whether it was
+   * closed or its repository fell below the popularity thresholds. Returns {@code previous} itself
+   * when nothing changed and null when the changes do not fit in one search.
+   */
+  private List<IssueDTO> harvestChanges(List<IssueDTO> previous, Instant lastRunAt)
+      throws IOException {
+    long phaseStart = System.currentTimeMillis();
+    Instant since = lastRunAt.minusMillis(githubConfig.getIngestion().getDeltaOverlapMillis());
+    List<IssueDTO> changed;
+    // Ids of every issue the search returned, also those mapping leaves out of changed
+    Set<Long> changedIds;
+    if (Github.INGESTION_ENGINE_GRAPHQL.equals(githubConfig.getIngestion().getEngine())) {
+      Optional<List<IssueDTO>> updated = graphQLIngestionService.fetchIssuesUpdatedSince(since);
+      if (updated.isEmpty()) {
+        return null;
+      }
+      changed = updated.get();
+      changedIds = changed.stream().map(IssueDTO::getId).collect(Collectors.toSet());
+    } else {
+      Optional<List<GHIssue>> updated = ghIssueService.searchIssuesUpdatedSince(since);
+      if (updated.isEmpty()) {
+        return null;
+      }
+      log.info(
+          "Delta search phase: {} issues updated since {} in {} ms",
+          updated.get().size(),
+          since,
+          elapsedSince(phaseStart));
+      changedIds = updated.get().stream().map(GHIssue::getId).collect(Collectors.toSet());
+      // Closed issues are only dropped, their comments and repositories are not needed
+      Map<Boolean, List<GHIssue>> byOpen =
+          updated.get().stream()
+              .collect(Collectors.partitioningBy(issue -> issue.getState() == GHIssueState.OPEN));
+      changed = new ArrayList<>(mapWithRepositories(byOpen.get(true)));
+      byOpen
+          .get(false)
+          .forEach(
+              issue ->
+                  changed.add(
+                      IssueDTO.builder()
+                          .id(issue.getId())
+                          .state(GHIssueState.CLOSED.toString())
+                          .build()));
+    }
+
+    if (changedIds.isEmpty()) {
+      log.info("Delta harvest: no issues changed since {}", since);
+      return previous;
+    }
+    List<IssueDTO> kept =
+        filterTopRepositories(
+            changed.stream().filter(IssuesService::isOpenGoodFirstIssue).toList());
+    Map<Long, IssueDTO> merged = new LinkedHashMap<>();
+    previous.forEach(issue -> merged.put(issue.getId(), issue));
+    changedIds.forEach(merged::remove);
+    kept.forEach(issue -> merged.put(issue.getId(), issue));
+    Set<Long> previousIds = previous.stream().map(IssueDTO::getId).collect(Collectors.toSet());
+    long updatedCount = kept.stream().filter(issue -> previousIds.contains(issue.getId())).count();
+    long added = kept.size() - updatedCount;
+
+    List<IssueDTO> issues = new ArrayList<>(merged.values());
+    issues.sort(
+        Comparator.comparing(
+            IssueDTO::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+    log.info(
+        "Delta harvest: {} changed issues, {} added, {} updated, {} removed, {} total, {} ms",
+        changedIds.size(),
+        added,
+        updatedCount,
+        previous.size() + added - issues.size(),
+        issues.size(),
+        elapsedSince(phaseStart));
+    return issues;
+  }
+
+  /**
+   * Repository details of {@code ghIssues} first, then comments of only the issues whose repository
+   * passes the popularity filter. Issues without comments are mapped without a request.
+   */
+  private List<IssueDTO> mapWithRepositories(List<GHIssue> ghIssues) {
+    long phaseStart = System.currentTimeMillis();
+    log.info("Fetching repository details of issues");
+    Map<String, RepositoryDTO> repositories = repositoryService.getRepositoriesForIssues(ghIssues);
+    log.info(
+        "Repository phase: {} repositories in {} ms",
+        repositories.size(),
+        elapsedSince(phaseStart));
+
+    Map<Boolean, List<GHIssue>> byPopularity =
+        ghIssues.stream()
+            .collect(
+                Collectors.partitioningBy(
+                    issue ->
+                        isPopular(
+                            repositories.get(
+                                repositoryService.getRepositoryNameFromUrl(issue.getUrl())))));
+    List<GHIssue> kept = byPopularity.get(true);
+    int requestsAvoided =
+        byPopularity.get(false).stream().mapToInt(IssuesService::commentRequests).sum();
+    int withoutComments =
+        (int) kept.stream().filter(issue -> issue.getCommentsCount() == 0).count();
+    log.info(
+        "Repository filter kept {} of {} issues; {} comment requests avoided for filtered issues, {} for issues without comments",
+        kept.size(),
+        ghIssues.size(),
+        requestsAvoided,
+        withoutComments);
+
+    phaseStart = System.currentTimeMillis();
+    List<IssueDTO> issueDTOList = mapIssues(kept);
+    log.info("Comment phase: {} issues in {} ms", issueDTOList.size(), elapsedSince(phaseStart));
+
+    issueDTOList.forEach(issue -> issue.setRepository(repositories.get(issue.getRepositoryName())));
+    log.info("Mapping repo in Issues complete");
+    return issueDTOList;
+  }
+
+  private List<IssueDTO> filterTopRepositories(List<IssueDTO> issueDTOList) {
+    log.info("Filtering issues from top repo");
+    List<IssueDTO> filteredIssues =
+        issueDTOList.parallelStream()
+            .filter(issue -> isPopular(issue.getRepository()))
+            .collect(Collectors.toList());
+    log.info("Filter complete");
+    return filteredIssues;
+  }
+
+  private boolean isPopular(RepositoryDTO repository) {
+    GithubConfig.Ingestion ingestion = githubConfig.getIngestion();
+    return repository != null
+        && repository.getStargazersCount() >= ingestion.getMinStars()
+        && repository.getForksCount() >= ingestion.getMinForks();
+  }
+
+  /** Requests listing the comments of {@code issue} takes, 100 comments per page. */
+  private static int commentRequests(GHIssue issue) {
+    return Math.max(1, (issue.getCommentsCount() + 99) / 100);
+  }
+
+  private static boolean isOpenGoodFirstIssue(IssueDTO issue) {
+    return GHIssueState.OPEN.toString().equalsIgnoreCase(issue.getState())
+        && issue.getLabels() != null
+        && issue.getLabels().stream().anyMatch(Github.GOOD_FIRST_ISSUE_LABEL::equalsIgnoreCase);
+  }
+
   private IssueDTO mapIssueToDTO(GHIssue issue) {
     log.info("Mapping issue: {} {}", issue.getUrl(), issue.getTitle());
     String[] path = issue.getUrl().getPath().split("/");
 
     try {
+      // The search result already says whether there is anything to list
       List<String> comments =
-          issue.listComments().withPageSize(100).toList().parallelStream()
-              .map(GHIssueComment::getBody)
-              .collect(Collectors.toList());
+          issue.getCommentsCount() == 0
+              ? new ArrayList<>()
+              : issue.listComments().withPageSize(100).toList().stream()
+                  .map(GHIssueComment::getBody)
+                  .collect(Collectors.toList());
 
       return IssueDTO.builder()
           .id(issue.getId())
@@ -99,4 +311,8 @@ public class IssuesService {
       return IssueDTO.builder().build();
     }
   }
+
+  private static long elapsedSince(long startMillis) {
+    return System.currentTimeMillis() - startMillis;
+  }
 }
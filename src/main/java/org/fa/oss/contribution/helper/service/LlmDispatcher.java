@@ -0,0 +1,340 @@
+package org.fa.oss.contribution.helper.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.LlmDispatcherProperties;
+import org.fa.oss.contribution.helper.dto.response.LlmDispatchStatsDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Sends LLM requests with a bounded, self-adjusting number of requests in flight.
+ *
+ * <p>The limit follows AIMD: every healthy completion while the limit is fully used grows it by
+ * {@code 1/limit} (about one extra slot per window), and a timeout, 5xx/429 or a response slower
+ * than {@link LlmDispatcherProperties#getLatencyThresholdMs()} multiplies it by the backoff ratio.
+ * Only requests started after the last decrease can shrink the limit again, so one saturation event
+ * does not collapse it to the minimum.
+ *
+ * <p>Blocking callers {@link Run#submit} a task to a dispatcher thread; reactive callers {@link
+ * Run#dispatch} a request that waits for its slot without holding a thread.
+ */
+@Slf4j
+@Component
+public class LlmDispatcher {
+
+  private final LlmDispatcherProperties properties;
+  private final ExecutorService workers;
+
+  private final Object lock = new Object();
+  private double limit;
+  private int inFlight;
+  private long lastDecreaseNanos = Long.MIN_VALUE;
+  private final Queue<Waiter> waiters = new ArrayDeque<>();
+
+  private volatile LlmDispatchStatsDTO lastStats;
+
+  public LlmDispatcher(LlmDispatcherProperties properties) {
+    this.properties = properties;
+    this.limit =
+        Math.max(
+            properties.getMinConcurrency(),
+            Math.min(properties.getInitialConcurrency(), properties.getMaxConcurrency()));
+    AtomicInteger threadCount = new AtomicInteger();
+    this.workers =
+        Executors.newFixedThreadPool(
+            properties.getMaxConcurrency(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "llm-dispatch-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public Run newRun(String name) {
+    return new Run(name);
+  }
+
+  public int getConcurrencyLimit() {
+    synchronized (lock) {
+      return (int) limit;
+    }
+  }
+
+  public LlmDispatchStatsDTO getLastStats() {
+    return lastStats;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+
+  private void acquire() throws InterruptedException {
+    synchronized (lock) {
+      while (inFlight >= (int) limit) {
+        lock.wait();
+      }
+      inFlight++;
+    }
+  }
+
+  /** Completes with a permit once a slot is free; a cancelled wait gives up its place. */
+  private Mono<Permit> acquirePermit() {
+    return Mono.create(
+        sink -> {
+          Waiter waiter = new Waiter(sink);
+          sink.onCancel(waiter::cancel);
+          Permit permit = null;
+          synchronized (lock) {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+              inFlight++;
+              permit = new Permit();
+              waiter.permit = permit;
+            } else {
+              waiters.add(waiter);
+            }
+          }
+          if (permit != null) {
+            sink.success(permit);
+          }
+        });
+  }
+
+  private void release(long startNanos, long latencyMs, Throwable failure) {
+    List<Waiter> granted;
+    synchronized (lock) {
+      boolean saturated = inFlight >= (int) limit;
+      inFlight--;
+      if (isOverload(failure) || latencyMs > properties.getLatencyThresholdMs()) {
+        if (startNanos > lastDecreaseNanos) {
+          limit = Math.max(properties.getMinConcurrency(), limit * properties.getBackoffRatio());
+          lastDecreaseNanos = System.nanoTime();
+          log.warn(
+              "LLM pod looks saturated (latency: {} ms, error: {}). Concurrency limit lowered to {}",
+              latencyMs,
+              failure != null ? failure.getClass().getSimpleName() : "none",
+              (int) limit);
+        }
+      } else if (failure == null && saturated) {
+        int before = (int) limit;
+        limit = Math.min(properties.getMaxConcurrency(), limit + 1.0 / limit);
+        if ((int) limit > before) {
+          log.info("Concurrency limit raised to {}", (int) limit);
+        }
+      }
+      granted = grantWaiting();
+    }
+    granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+  }
+
+  /** Frees a slot that was never used, without adjusting the limit. */
+  private void releaseUnused() {
+    List<Waiter> granted;
+    synchronized (lock) {
+      inFlight--;
+      granted = grantWaiting();
+    }
+    granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+  }
+
+  /**
+   * Hands free slots to waiting reactive requests and wakes blocked callers; call with the lock
+   * held, then complete the returned waiters outside it.
+   */
+  private List<Waiter> grantWaiting() {
+    List<Waiter> granted = new ArrayList<>();
+    while (!waiters.isEmpty() && inFlight < (int) limit) {
+      Waiter waiter = waiters.poll();
+      inFlight++;
+      waiter.permit = new Permit();
+      granted.add(waiter);
+    }
+    lock.notifyAll();
+    return granted;
+  }
+
+  static boolean isOverload(Throwable failure) {
+    Throwable cause = failure;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause == null) {
+      return false;
+    }
+    if (cause instanceof TimeoutException || cause instanceof WebClientRequestException) {
+      return true;
+    }
+    if (cause instanceof WebClientResponseException responseException) {
+      return responseException.getStatusCode().is5xxServerError()
+          || responseException.getStatusCode().value() == 429;
+    }
+    return cause.getCause() instanceof TimeoutException;
+  }
+
+  /** A slot of the limit; released once, with the latency and outcome of its request. */
+  private final class Permit {
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private void release(Throwable failure) {
+      if (released.compareAndSet(false, true)) {
+        LlmDispatcher.this.release(
+            startNanos, (System.nanoTime() - startNanos) / 1_000_000, failure);
+      }
+    }
+
+    private void releaseUnused() {
+      if (released.compareAndSet(false, true)) {
+        LlmDispatcher.this.releaseUnused();
+      }
+    }
+  }
+
+  /** A reactive request waiting for a slot; {@code permit} is set under the lock when granted. */
+  private final class Waiter {
+    private final MonoSink<Permit> sink;
+    private Permit permit;
+
+    private Waiter(MonoSink<Permit> sink) {
+      this.sink = sink;
+    }
+
+    private void cancel() {
+      Permit granted;
+      synchronized (lock) {
+        waiters.remove(this);
+        granted = permit;
+      }
+      // Granted but not delivered yet, or delivered and released already
+      if (granted != null) {
+        granted.releaseUnused();
+      }
+    }
+  }
+
+  /**
+   * One batch of requests, e.g. a scheduled summary run, whose throughput is reported on finish.
+   */
+  public class Run {
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong();
+
+    private Run(String name) {
+      this.name = name;
+    }
+
+    /** Blocks the caller until a slot is free, then runs the task on a dispatcher thread. */
+    public <R> CompletableFuture<R> submit(Callable<R> task) {
+      CompletableFuture<R> result = new CompletableFuture<>();
+      try {
+        acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        result.completeExceptionally(e);
+        return result;
+      }
+      requests.incrementAndGet();
+      long taskStart = System.nanoTime();
+      try {
+        workers.execute(
+            () -> {
+              Throwable failure = null;
+              R value = null;
+              try {
+                value = task.call();
+              } catch (Throwable t) {
+                failure = t;
+                failures.incrementAndGet();
+              } finally {
+                long latencyMs = (System.nanoTime() - taskStart) / 1_000_000;
+                release(taskStart, latencyMs, failure);
+              }
+              if (failure != null) {
+                result.completeExceptionally(failure);
+              } else {
+                result.complete(value);
+              }
+            });
+      } catch (RuntimeException e) {
+        release(taskStart, 0, null);
+        result.completeExceptionally(e);
+      }
+      return result;
+    }
+
+    /**
+     * Subscribes to the request made by {@code request} once a slot is free, without blocking a
+     * thread while waiting. The slot is released when the request completes, fails or is cancelled.
+     */
+    public <R> Mono<R> dispatch(Supplier<Mono<R>> request) {
+      return Mono.usingWhen(
+          acquirePermit(),
+          permit -> {
+            requests.incrementAndGet();
+            return request.get();
+          },
+          permit -> Mono.fromRunnable(() -> permit.release(null)),
+          (permit, failure) ->
+              Mono.fromRunnable(
+                  () -> {
+                    failures.incrementAndGet();
+                    permit.release(failure);
+                  }),
+          permit -> Mono.fromRunnable(permit::releaseUnused));
+    }
+
+    public void recordTokens(long count) {
+      tokens.addAndGet(count);
+    }
+
+    public LlmDispatchStatsDTO finish() {
+      long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+      double seconds = elapsedMillis / 1000.0;
+      LlmDispatchStatsDTO stats =
+          new LlmDispatchStatsDTO(
+              name,
+              requests.get(),
+              failures.get(),
+              tokens.get(),
+              elapsedMillis,
+              requests.get() / seconds,
+              tokens.get() / seconds,
+              getConcurrencyLimit());
+      lastStats = stats;
+      log.info(
+          "LLM run '{}' finished: {} requests ({} failed), {} tokens in {} ms -> {} req/s, {} tokens/s, concurrency limit {}",
+          name,
+          stats.requests(),
+          stats.failures(),
+          stats.tokens(),
+          stats.elapsedMillis(),
+          String.format("%.2f", stats.requestsPerSecond()),
+          String.format("%.1f", stats.tokensPerSecond()),
+          stats.concurrencyLimit());
+      return stats;
+    }
+  }
+}
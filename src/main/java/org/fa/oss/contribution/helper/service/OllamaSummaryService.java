@@ -10,10 +10,12 @@ import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.fa.oss.contribution.helper.cache.CentralCacheService;
+import org.fa.oss.contribution.helper.cache.SummaryResultCache;
 import org.fa.oss.contribution.helper.constants.Ollama;
 import org.fa.oss.contribution.helper.dto.request.OllamaRequest;
 import org.fa.oss.contribution.helper.dto.response.IssueDTO;
@@ -41,6 +43,9 @@ public class OllamaSummaryService {
   @Autowired PromptService promptService;
 
   @Autowired IssuesService issuesService;
+
+  @Autowired SummaryResultCache summaryResultCache;
+
   private WebClient webClient =
       WebClient.builder()
           .baseUrl(Ollama.URL_AND_PORT)
@@ -87,6 +92,18 @@ public class OllamaSummaryService {
             .format(formatSchema)
             .build();
 
+    String cacheKey = summaryResultCache.keyFor(request);
+    Optional<SummaryDTO> cachedSummary = summaryResultCache.get(cacheKey);
+    if (cachedSummary.isPresent()) {
+      log.info("Summary cache hit for issue: " + issue.getId());
+      return IssueSummary.builder()
+          .issueDTO(issue)
+          .summary(cachedSummary.get())
+          .updatedAt(ZonedDateTime.now().toEpochSecond())
+          .build();
+    }
+
+    long startMillis = System.currentTimeMillis();
     log.info("Generating summary for issue: " + issue.getId());
     String response =
         webClient
@@ -107,6 +124,7 @@ public class OllamaSummaryService {
         summaryDTO = objectMapper.readValue(ollamaResponse.getResponse(), SummaryDTO.class);
         summaryDTO.setValidJson(true);
         summaryDTO.setSummaryText("");
+        summaryResultCache.put(cacheKey, summaryDTO, System.currentTimeMillis() - startMillis);
       } catch (JsonParseException e) {
         summaryDTO =
             SummaryDTO.builder().summaryText(ollamaResponse.getResponse()).validJson(false).build();
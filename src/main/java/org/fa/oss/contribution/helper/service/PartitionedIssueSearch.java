@@ -0,0 +1,177 @@
+package org.fa.oss.contribution.helper.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.fa.oss.contribution.helper.constants.Github;
+import org.kohsuke.github.GHDirection;
+import org.kohsuke.github.GHIssue;
+import org.kohsuke.github.GHIssueSearchBuilder;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.PagedIterator;
+import org.kohsuke.github.PagedSearchIterable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs a GitHub issue search that matches more than the 1000 results one search returns by
+ * splitting it into {@code created:} windows. Every window is searched concurrently on the GitHub
+ * I/O executor; the first page tells how many issues it holds, and a window still above the cap is
+ * split into as many equal windows as its count needs and searched again. Results are deduplicated
+ * by issue id.
+ */
+@Service
+@Slf4j
+public class PartitionedIssueSearch {
+
+  // Room for issues created while the windows are searched
+  private static final int TARGET_WINDOW_RESULTS = 900;
+
+  private static final int MAX_SPLIT = 16;
+
+  private final GitHubIoExecutor gitHubIoExecutor;
+  private final GitHubRequestScheduler scheduler;
+  private final GithubConfig githubConfig;
+
+  @Autowired
+  public PartitionedIssueSearch(
+      GitHubIoExecutor gitHubIoExecutor,
+      GitHubRequestScheduler scheduler,
+      GithubConfig githubConfig) {
+    this.gitHubIoExecutor = gitHubIoExecutor;
+    this.scheduler = scheduler;
+    this.githubConfig = githubConfig;
+  }
+
+  /** A half-open range of creation times, [from, to). */
+  record Window(Instant from, Instant to) {
+    String qualifier() {
+      return "created:" + from + ".." + to.minusSeconds(1);
+    }
+
+    long seconds() {
+      return Duration.between(from, to).toSeconds();
+    }
+  }
+
+  /** Either the issues of a window, or the windows it was split into. */
+  private record Outcome(List<GHIssue> issues, List<Window> windows, int pages) {}
+
+  /** Every issue matching {@code query}, most recently updated first. */
+  public List<GHIssue> search(GitHub github, String query) throws IOException {
+    long startNanos = System.nanoTime();
+    Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+    List<Window> windows =
+        List.of(new Window(githubConfig.getIngestion().getSearchPartitionStart(), now));
+    Map<Long, GHIssue> issues = new LinkedHashMap<>();
+    int searched = 0;
+    int splits = 0;
+    int pages = 0;
+    int round = 0;
+    while (!windows.isEmpty()) {
+      round++;
+      List<Outcome> outcomes =
+          gitHubIoExecutor.mapAll("search", windows, window -> searchWindow(github, query, window));
+      if (outcomes.size() < windows.size()) {
+        // A failed window would silently drop its issues from the harvest
+        throw new IOException(
+            (windows.size() - outcomes.size()) + " search windows failed for " + query);
+      }
+      searched += windows.size();
+      List<Window> next = new ArrayList<>();
+      for (Outcome outcome : outcomes) {
+        pages += outcome.pages();
+        if (outcome.windows() != null) {
+          splits++;
+          next.addAll(outcome.windows());
+        } else {
+          outcome.issues().forEach(issue -> issues.putIfAbsent(issue.getId(), issue));
+        }
+      }
+      windows = next;
+    }
+
+    List<GHIssue> sorted = new ArrayList<>(issues.values());
+    sorted.sort(Comparator.comparing(PartitionedIssueSearch::updatedAt).reversed());
+    log.info(
+        "Partitioned search: {} issues from {} windows ({} split) in {} rounds, {} pages, {} ms",
+        sorted.size(),
+        searched,
+        splits,
+        round,
+        pages,
+        (System.nanoTime() - startNanos) / 1_000_000);
+    return sorted;
+  }
+
+  private Outcome searchWindow(GitHub github, String query, Window window) {
+    PagedSearchIterable<GHIssue> results =
+        github
+            .searchIssues()
+            .q(query + " " + window.qualifier())
+            // Creation times do not change while the pages are read, unlike update times, so an
+            // issue updated meanwhile cannot move onto a page already read and be missed
+            .sort(GHIssueSearchBuilder.Sort.CREATED)
+            .order(GHDirection.ASC)
+            .list()
+            .withPageSize(Github.PAGE_SIZE);
+    // Every later phase waits on the search pages
+    try (GitHubRequestScheduler.Scope scope =
+        scheduler.prioritize(GitHubRequestScheduler.Priority.HIGH)) {
+      // The first page fetched by the iterator also carries the total count
+      PagedIterator<GHIssue> iterator = results.iterator();
+      if (!iterator.hasNext()) {
+        return new Outcome(List.of(), null, 1);
+      }
+      int total = results.getTotalCount();
+      if (total > Github.SEARCH_RESULT_LIMIT && window.seconds() > 1) {
+        return new Outcome(null, split(window, total), 1);
+      }
+      if (total > Github.SEARCH_RESULT_LIMIT) {
+        log.warn(
+            "{} issues created in {}, only the first {} are harvested",
+            total,
+            window,
+            Github.SEARCH_RESULT_LIMIT);
+      }
+      List<GHIssue> issues = new ArrayList<>(total);
+      iterator.forEachRemaining(issues::add);
+      int pages = Math.max(1, (issues.size() + Github.PAGE_SIZE - 1) / Github.PAGE_SIZE);
+      return new Outcome(issues, null, pages);
+    }
+  }
+
+  /** Equal windows, enough for {@code total} issues if they were spread evenly. */
+  static List<Window> split(Window window, int total) {
+    int parts =
+        (int)
+            Math.min(
+                Math.min(MAX_SPLIT, window.seconds()),
+                Math.max(2, (total + TARGET_WINDOW_RESULTS - 1) / TARGET_WINDOW_RESULTS));
+    List<Window> windows = new ArrayList<>(parts);
+    Instant from = window.from();
+    for (int i = 1; i <= parts; i++) {
+      Instant to =
+          i == parts ? window.to() : window.from().plusSeconds(window.seconds() * i / parts);
+      windows.add(new Window(from, to));
+      from = to;
+    }
+    return windows;
+  }
+
+  private static Instant updatedAt(GHIssue issue) {
+    try {
+      return issue.getUpdatedAt();
+    } catch (IOException e) {
+      return Instant.EPOCH;
+    }
+  }
+}
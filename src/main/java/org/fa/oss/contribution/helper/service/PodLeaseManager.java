@@ -0,0 +1,216 @@
+package org.fa.oss.contribution.helper.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.RunPodConfig;
+import org.fa.oss.contribution.helper.dto.response.PodLeaseStatsDTO;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reference counted access to the vLLM pod. The first lease starts the pod and waits until it is
+ * ready, concurrent callers wait for that same start, and the pod is stopped only after it has been
+ * without leases for {@code runpod.idle-keep-warm-ms}. A lease taken within that window reuses the
+ * warm pod and counts as an avoided cold start.
+ */
+@Slf4j
+@Service
+public class PodLeaseManager {
+
+  private enum State {
+    STOPPED,
+    STARTING,
+    RUNNING
+  }
+
+  private final RunPodManager runPodManager;
+  private final RunPodConfig runPodConfig;
+  private final ScheduledExecutorService idleStopper;
+
+  private State state = State.STOPPED;
+  private int leases;
+  private CompletableFuture<Void> startup;
+  private ScheduledFuture<?> pendingStop;
+  private long idleSinceMillis;
+
+  private long coldStarts;
+  private long coldStartsAvoided;
+  private long idleMillis;
+
+  public PodLeaseManager(RunPodManager runPodManager, RunPodConfig runPodConfig) {
+    this.runPodManager = runPodManager;
+    this.runPodConfig = runPodConfig;
+    this.idleStopper =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "pod-idle-stopper");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Held while the pod is in use; closing it releases the pod. */
+  public class Lease implements AutoCloseable {
+    private final String holder;
+    private boolean released;
+
+    private Lease(String holder) {
+      this.holder = holder;
+    }
+
+    @Override
+    public void close() {
+      synchronized (PodLeaseManager.this) {
+        if (released) {
+          return;
+        }
+        released = true;
+      }
+      release(holder);
+    }
+  }
+
+  /** Returns once the pod is running and serving, starting it if no other lease did. */
+  public Lease acquire(String holder) throws InterruptedException {
+    CompletableFuture<Void> ready;
+    boolean starter = false;
+    synchronized (this) {
+      leases++;
+      if (pendingStop != null) {
+        pendingStop.cancel(false);
+        pendingStop = null;
+      }
+      if (state == State.STOPPED) {
+        state = State.STARTING;
+        startup = new CompletableFuture<>();
+        starter = true;
+        coldStarts++;
+      } else {
+        if (state == State.RUNNING && leases == 1) {
+          idleMillis += System.currentTimeMillis() - idleSinceMillis;
+        }
+        coldStartsAvoided++;
+        log.info("Lease for {} shares the {} pod", holder, state.name().toLowerCase());
+      }
+      ready = startup;
+    }
+
+    if (starter) {
+      startPod(holder);
+    }
+    try {
+      ready.get();
+    } catch (ExecutionException e) {
+      release(holder);
+      throw new RuntimeException("Pod could not be started for " + holder, e.getCause());
+    } catch (InterruptedException e) {
+      release(holder);
+      throw e;
+    }
+    return new Lease(holder);
+  }
+
+  public synchronized PodLeaseStatsDTO getStats() {
+    long idle = idleMillis;
+    if (state == State.RUNNING && leases == 0) {
+      idle += System.currentTimeMillis() - idleSinceMillis;
+    }
+    return new PodLeaseStatsDTO(
+        state.name(),
+        leases,
+        coldStarts,
+        coldStartsAvoided,
+        idle / 60_000.0,
+        runPodConfig.getIdleKeepWarmMs());
+  }
+
+  /**
+   * Stops a pod that is only being kept warm right away instead of at the end of its keep-warm
+   * window. For callers about to take the application down, which would cancel the pending stop. A
+   * pod that still has leases keeps running.
+   */
+  public synchronized void stopNowIfIdle() {
+    if (pendingStop != null) {
+      pendingStop.cancel(false);
+    }
+    stopIfIdle();
+  }
+
+  /** A pod left warm for a lease that will never come is stopped with the application. */
+  @PreDestroy
+  public synchronized void shutdown() {
+    idleStopper.shutdownNow();
+    if (state == State.RUNNING) {
+      stopPod();
+      state = State.STOPPED;
+    }
+  }
+
+  private void startPod(String holder) {
+    log.info("Cold start of pod {} for {}", runPodConfig.getVllmPodId(), holder);
+    CompletableFuture<Void> started;
+    try {
+      runPodManager.startPod();
+      runPodManager.waitForRunningPod();
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      log.error("Failed to start pod {}", runPodConfig.getVllmPodId(), e);
+      synchronized (this) {
+        // A half started pod still costs money
+        stopPod();
+        state = State.STOPPED;
+        started = startup;
+      }
+      started.completeExceptionally(e);
+      return;
+    }
+    synchronized (this) {
+      state = State.RUNNING;
+      started = startup;
+    }
+    started.complete(null);
+  }
+
+  private void release(String holder) {
+    synchronized (this) {
+      leases--;
+      if (leases > 0 || state != State.RUNNING) {
+        return;
+      }
+      idleSinceMillis = System.currentTimeMillis();
+      long keepWarmMs = runPodConfig.getIdleKeepWarmMs();
+      log.info("Last lease released by {}, keeping pod warm for {} ms", holder, keepWarmMs);
+      if (keepWarmMs > 0) {
+        pendingStop = idleStopper.schedule(this::stopIfIdle, keepWarmMs, TimeUnit.MILLISECONDS);
+        return;
+      }
+    }
+    stopIfIdle();
+  }
+
+  /** Stops under the lock, so a new lease cannot start the pod while the stop is in flight. */
+  private synchronized void stopIfIdle() {
+    if (leases > 0 || state != State.RUNNING) {
+      return;
+    }
+    idleMillis += System.currentTimeMillis() - idleSinceMillis;
+    pendingStop = null;
+    stopPod();
+    state = State.STOPPED;
+  }
+
+  private void stopPod() {
+    try {
+      runPodManager.stopPod();
+    } catch (Exception ex) {
+      log.warn("Error stopping pod", ex);
+    }
+  }
+}
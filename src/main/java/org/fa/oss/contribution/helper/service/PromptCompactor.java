@@ -0,0 +1,169 @@
+package org.fa.oss.contribution.helper.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.SummaryProperties;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.fa.oss.contribution.helper.model.PromptPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Shrinks an issue prompt until it fits a token limit instead of dropping the issue. Title, labels
+ * and the rest of the issue header are always kept; the description is cut to its start and
+ * comments are kept from both ends (newest first, then earliest), dropping the middle of the
+ * thread.
+ *
+ * <p>Every part is tokenized once and the budget is tracked by subtracting those counts, so only
+ * the issue section of the result is tokenized again to verify it.
+ */
+@Service
+@Slf4j
+public class PromptCompactor {
+
+  private static final String DESCRIPTION_MARKER = " ...[description truncated]";
+  private static final String COMMENTS_MARKER = "...[%d comments omitted]...";
+  private static final String COMMENT_MARKER = " ...[comment truncated]";
+
+  // Covers the markers and tokens merging differently at part boundaries
+  private static final int SAFETY_MARGIN_TOKENS = 32;
+
+  // ", " between comments in the rendered list
+  private static final int COMMENT_SEPARATOR_TOKENS = 1;
+
+  private static final int MAX_ATTEMPTS = 3;
+
+  @Autowired private PromptService promptService;
+
+  @Autowired private SummaryProperties summaryProperties;
+
+  /**
+   * Returns a prompt for {@code issue} below {@code tokenLimit} tokens, or empty when even the
+   * issue header without description and comments does not fit. {@code tokenLimit} is a prompt
+   * budget ({@link SummaryProperties#getPromptTokenLimit}), not the model's whole context window.
+   */
+  public Optional<PromptPlan> compact(IssueDTO issue, int tokenLimit) {
+    IssueDTO skeleton = issue.toBuilder().description("").comments(List.of()).build();
+    int fixedTokens =
+        promptService.getPromptHeaderTokens()
+            + TokenCounter.countTokens(promptService.prepareIssueSection(skeleton));
+
+    String description = issue.getDescription() != null ? issue.getDescription() : "";
+    int descriptionTokens = TokenCounter.countTokens(description);
+
+    List<String> comments = issue.getComments() != null ? issue.getComments() : List.of();
+    int[] commentTokens = new int[comments.size()];
+    int commentsTotal = 0;
+    for (int i = 0; i < comments.size(); i++) {
+      String comment = comments.get(i) != null ? comments.get(i) : "";
+      commentTokens[i] = TokenCounter.countTokens(comment) + COMMENT_SEPARATOR_TOKENS;
+      commentsTotal += commentTokens[i];
+    }
+
+    int available = tokenLimit - 1 - fixedTokens - SAFETY_MARGIN_TOKENS;
+    for (int attempt = 0; attempt < MAX_ATTEMPTS && available > 0; attempt++) {
+      IssueDTO compacted =
+          fit(
+              issue,
+              description,
+              descriptionTokens,
+              comments,
+              commentTokens,
+              commentsTotal,
+              available);
+      String section = promptService.prepareIssueSection(compacted);
+      int sectionTokens = TokenCounter.countTokens(section);
+      int tokens = promptService.getPromptHeaderTokens() + sectionTokens;
+      if (tokens < tokenLimit) {
+        log.info(
+            "Compacted prompt of issue {} to {} tokens (limit: {})",
+            issue.getUrl(),
+            tokens,
+            tokenLimit);
+        return Optional.of(
+            new PromptPlan(
+                issue, promptService.preparePrompt(compacted), tokens, sectionTokens, true));
+      }
+      available -= tokens - tokenLimit + 1;
+    }
+    log.warn(
+        "Prompt of issue {} cannot be compacted below {} tokens, header alone takes {}",
+        issue.getUrl(),
+        tokenLimit,
+        fixedTokens);
+    return Optional.empty();
+  }
+
+  private IssueDTO fit(
+      IssueDTO issue,
+      String description,
+      int descriptionTokens,
+      List<String> comments,
+      int[] commentTokens,
+      int commentsTotal,
+      int available) {
+    int descriptionBudget = descriptionTokens;
+    if (descriptionTokens + commentsTotal > available) {
+      int share = (int) (available * summaryProperties.getDescriptionBudgetShare());
+      descriptionBudget = Math.min(descriptionTokens, Math.max(share, available - commentsTotal));
+    }
+    int remaining = available - descriptionBudget;
+    List<String> earliest = new ArrayList<>();
+    List<String> newest = new ArrayList<>();
+    int head = 0;
+    int tail = comments.size() - 1;
+    boolean takeNewest = true;
+    boolean newestOpen = true;
+    boolean earliestOpen = true;
+    while (head <= tail && (newestOpen || earliestOpen)) {
+      if (takeNewest ? !newestOpen : !earliestOpen) {
+        takeNewest = !takeNewest;
+      }
+      int index = takeNewest ? tail : head;
+      if (commentTokens[index] > remaining) {
+        // Stop growing this end of the thread, the other end may still have room
+        if (takeNewest) {
+          newestOpen = false;
+        } else {
+          earliestOpen = false;
+        }
+      } else {
+        remaining -= commentTokens[index];
+        if (takeNewest) {
+          newest.add(0, comments.get(tail--));
+        } else {
+          earliest.add(comments.get(head++));
+        }
+      }
+      takeNewest = !takeNewest;
+    }
+
+    List<String> keptComments = new ArrayList<>(earliest);
+    int omitted = tail - head + 1;
+    if (omitted > 0) {
+      if (newest.isEmpty() && remaining > COMMENT_SEPARATOR_TOKENS) {
+        // The latest comment alone is too long: keep its start rather than nothing
+        String latest = comments.get(tail) != null ? comments.get(tail) : "";
+        newest.add(
+            TokenCounter.truncate(latest, remaining - COMMENT_SEPARATOR_TOKENS) + COMMENT_MARKER);
+        remaining = 0;
+        omitted--;
+      }
+      if (omitted > 0) {
+        keptComments.add(String.format(COMMENTS_MARKER, omitted));
+      }
+    }
+    keptComments.addAll(newest);
+
+    // Budget the comments could not use goes back to the description
+    descriptionBudget += Math.max(0, Math.min(remaining, descriptionTokens - descriptionBudget));
+    String keptDescription =
+        descriptionBudget < descriptionTokens
+            ? TokenCounter.truncate(description, descriptionBudget) + DESCRIPTION_MARKER
+            : description;
+
+    return issue.toBuilder().description(keptDescription).comments(keptComments).build();
+  }
+}
@@ -0,0 +1,164 @@
+package org.fa.oss.contribution.helper.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.cache.TokenCountsCache;
+import org.fa.oss.contribution.helper.config.SummaryProperties;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.fa.oss.contribution.helper.model.PromptPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds the {@link PromptPlan} of every issue in a run: the prompt is rendered once and its token
+ * count is the precomputed header count plus the count of the issue section. Section counts are
+ * remembered by a hash of the section text and persisted in {@link TokenCountsCache}, so issues
+ * that did not change since an earlier run are not tokenized again.
+ */
+@Service
+@Slf4j
+public class PromptPlanner {
+
+  @Autowired private PromptService promptService;
+
+  @Autowired private PromptCompactor promptCompactor;
+
+  @Autowired private TokenCountsCache tokenCountsCache;
+
+  @Autowired private SummaryProperties summaryProperties;
+
+  private final Map<String, Integer> sectionTokenCounts = new ConcurrentHashMap<>();
+  private volatile boolean countsLoaded;
+
+  /** Plans every issue, dropping the ones whose prompt cannot be compacted below the limit. */
+  public List<PromptPlan> plan(List<IssueDTO> issues, int tokenLimit) {
+    loadCounts();
+    long startNanos = System.nanoTime();
+    Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+    AtomicInteger tokenized = new AtomicInteger();
+    AtomicLong tokenizeNanos = new AtomicLong();
+
+    List<PromptPlan> plans =
+        issues.parallelStream()
+            .map(
+                issue -> {
+                  try {
+                    return planIssue(issue, tokenLimit, usedKeys, tokenized, tokenizeNanos);
+                  } catch (Exception e) {
+                    log.error(
+                        "Token check failed due to exception for issue {}: {}",
+                        issue.getUrl(),
+                        e.getMessage(),
+                        e);
+                    return null;
+                  }
+                })
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+    log.info(
+        "Planned {} of {} prompts in {} ms: {} token counts reused, {} tokenized in {} ms",
+        plans.size(),
+        issues.size(),
+        (System.nanoTime() - startNanos) / 1_000_000,
+        usedKeys.size() - tokenized.get(),
+        tokenized.get(),
+        tokenizeNanos.get() / 1_000_000);
+    if (tokenized.get() > 0) {
+      saveCounts(usedKeys);
+    }
+    return plans;
+  }
+
+  private PromptPlan planIssue(
+      IssueDTO issue,
+      int tokenLimit,
+      Set<String> usedKeys,
+      AtomicInteger tokenized,
+      AtomicLong tokenizeNanos) {
+    String section = promptService.prepareIssueSection(issue);
+    String key = hash(section);
+    usedKeys.add(key);
+    Integer sectionTokens = sectionTokenCounts.get(key);
+    if (sectionTokens == null) {
+      long start = System.nanoTime();
+      sectionTokens = TokenCounter.countTokens(section);
+      tokenizeNanos.addAndGet(System.nanoTime() - start);
+      tokenized.incrementAndGet();
+      sectionTokenCounts.put(key, sectionTokens);
+    }
+
+    int tokenCount = promptService.getPromptHeaderTokens() + sectionTokens;
+    if (tokenCount < tokenLimit) {
+      return new PromptPlan(
+          issue, promptService.preparePrompt(issue), tokenCount, sectionTokens, false);
+    }
+    log.info(
+        "Token check failed, compacting prompt. issue: {}, token count: {}, limit: {}",
+        issue.getUrl(),
+        tokenCount,
+        tokenLimit);
+    return promptCompactor.compact(issue, tokenLimit).orElse(null);
+  }
+
+  private void loadCounts() {
+    if (countsLoaded) {
+      return;
+    }
+    synchronized (this) {
+      if (countsLoaded) {
+        return;
+      }
+      try {
+        Map<String, Integer> stored = tokenCountsCache.load();
+        if (stored != null) {
+          sectionTokenCounts.putAll(stored);
+        }
+      } catch (Exception e) {
+        log.warn("Stored token counts could not be loaded, prompts will be tokenized again", e);
+      }
+      countsLoaded = true;
+    }
+  }
+
+  private synchronized void saveCounts(Set<String> usedKeys) {
+    int maxEntries = summaryProperties.getTokenCountCacheEntries();
+    if (sectionTokenCounts.size() > maxEntries) {
+      // Counts of issues that are not part of this run are the first to go
+      sectionTokenCounts.keySet().retainAll(usedKeys);
+      // then, for a run with more issues than the limit, any of its own
+      Iterator<String> keys = sectionTokenCounts.keySet().iterator();
+      while (sectionTokenCounts.size() > maxEntries && keys.hasNext()) {
+        keys.next();
+        keys.remove();
+      }
+    }
+    try {
+      tokenCountsCache.save(new HashMap<>(sectionTokenCounts));
+    } catch (Exception e) {
+      log.warn("Failed to persist token counts", e);
+    }
+  }
+
+  private static String hash(String section) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(section.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
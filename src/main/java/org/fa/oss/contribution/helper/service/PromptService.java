@@ -1,6 +1,7 @@
 package org.fa.oss.contribution.helper.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.fa.oss.contribution.helper.dto.response.IssueDTO;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +13,32 @@ public class PromptService {
 
   @Autowired private ObjectMapper objectMapper;
 
+  // The single-issue prompt has always been rendered with this indentation; keeping it byte for
+  // byte keeps previously cached summary results valid
+  private static final String PROMPT_INDENT = "              ";
+
+  private static final String BATCH_ISSUE_HEADER = "\nGitHub Issue %d:\n";
+
+  private final String promptHeader = PROMPT_INDENT + getPromptTemplate() + "\n";
+
+  // Tokenized once per process, every prompt shares them
+  private final int promptHeaderTokens = TokenCounter.countTokens(promptHeader);
+  private final int batchPromptTemplateTokens = TokenCounter.countTokens(getBatchPromptTemplate());
+  private final int batchIssueHeaderTokens =
+      TokenCounter.countTokens(String.format(BATCH_ISSUE_HEADER, 999));
+
   public String preparePrompt(IssueDTO issueDTO) {
+    return promptHeader + prepareIssueSection(issueDTO);
+  }
+
+  /**
+   * The issue specific part of {@link #preparePrompt(IssueDTO)}. The shared header ends with a line
+   * break, which the tokenizer never merges with the text after it, so the token count of a prompt
+   * is {@link #getPromptHeaderTokens()} plus the token count of its section.
+   */
+  public String prepareIssueSection(IssueDTO issueDTO) {
     return String.format(
         """
-                            %s
                             - Title: %s
                             - Description: %s
                             - Labels: %s
@@ -23,7 +46,6 @@ public class PromptService {
                             - Author: %s
                             - Repository name: %s
               """,
-        getPromptTemplate(),
         issueDTO.getTitle(),
         issueDTO.getDescription(),
         String.join(", ", issueDTO.getLabels()),
@@ -32,6 +54,72 @@ public class PromptService {
         issueDTO.getRepositoryName());
   }
 
+  public int getPromptHeaderTokens() {
+    return promptHeaderTokens;
+  }
+
+  public int getBatchPromptTemplateTokens() {
+    return batchPromptTemplateTokens;
+  }
+
+  /**
+   * Upper bound for the tokens an issue adds to a batch prompt, derived from the token count of its
+   * single-issue section (which is indented and therefore never shorter).
+   */
+  public int estimateBatchIssueTokens(int sectionTokens) {
+    return batchIssueHeaderTokens + sectionTokens;
+  }
+
+  /**
+   * Prompt asking for one {@code summarizeIssue} call per issue. Issues are numbered from 1 in list
+   * order, and the model echoes that number so the calls can be matched back to the issues.
+   */
+  public String prepareBatchPrompt(List<IssueDTO> issueDTOs) {
+    StringBuilder prompt = new StringBuilder(getBatchPromptTemplate());
+    for (int i = 0; i < issueDTOs.size(); i++) {
+      prompt.append(prepareBatchIssueSection(i + 1, issueDTOs.get(i)));
+    }
+    return prompt.toString();
+  }
+
+  public String prepareBatchIssueSection(int issueNumber, IssueDTO issueDTO) {
+    return String.format(BATCH_ISSUE_HEADER, issueNumber)
+        + String.format(
+            """
+            - Title: %s
+            - Description: %s
+            - Labels: %s
+            - Comments: %s
+            - Author: %s
+            - Repository name: %s
+            """,
+            issueDTO.getTitle(),
+            issueDTO.getDescription(),
+            String.join(", ", issueDTO.getLabels()),
+            issueDTO.getComments(),
+            issueDTO.getUser(),
+            issueDTO.getRepositoryName());
+  }
+
+  public String getBatchPromptTemplate() {
+    return """
+        You are a helpful assistant summarizing GitHub issues for contributors.
+        You are given several GitHub issues. For every issue call the summarizeIssue function exactly once and pass the issue number shown in the header of that issue as issueNumber.
+        Do not merge issues, do not skip any issue and do not add any text outside the function calls.
+
+        Each summary should cover:
+
+        - main: summary of the issue's main goal
+        - validationOrRequirement: validations or requirements
+        - attemptedFixes: attempts or blockers
+        - otherNotes: other relevant context from description or comments
+
+        Make sure to have detailed info for each section. Do not add * in the beginning of each section.
+
+        GitHub Issues:
+        """;
+  }
+
   private String getPromptTemplate() {
     return """
         You are a helpful assistant summarizing GitHub issues for contributors.
@@ -1,12 +1,22 @@
 package org.fa.oss.contribution.helper.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import java.io.IOException;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.cache.RepositoriesCache;
+import org.fa.oss.contribution.helper.config.GithubConfig;
 import org.fa.oss.contribution.helper.dto.response.OwnerDTO;
 import org.fa.oss.contribution.helper.dto.response.RepositoryDTO;
+import org.fa.oss.contribution.helper.model.RepositoryCacheEntry;
+import org.kohsuke.github.GHIssue;
 import org.kohsuke.github.GHRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,32 +25,219 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class RepositoryService {
 
-  @Autowired GHIssueService ghIssueService;
-
-  public Map<String, GHRepository> getRepositoryForIssues() throws IOException {
-    Map<String, GHRepository> repoMap = new HashMap<>();
-
-    ghIssueService
-        .getGHIssues()
-        .forEach(
-            issue -> {
-              String key = getRepositoryNameFromUrl(issue.getUrl());
-              // Only call getRepository() if key is not in map or has null value
-              try {
-                repoMap.computeIfAbsent(
-                    key,
-                    k -> {
-                      log.info("Fetch repo:{} details for issue:{} ", key, issue.getHtmlUrl());
-                      return issue.getRepository();
-                    });
-              } catch (Exception e) {
-                log.error("Repo not found for issue. url: {}, issue: {}", key, issue.getHtmlUrl());
+  @Autowired GitHubIoExecutor gitHubIoExecutor;
+
+  @Autowired GitHubRestClient gitHubRestClient;
+
+  @Autowired RepositoriesCache repositoriesCache;
+
+  @Autowired GithubConfig githubConfig;
+
+  @Autowired GitHubRequestScheduler gitHubRequestScheduler;
+
+  // Fetches in progress, shared by concurrent runs asking for the same repository
+  private final Map<String, CompletableFuture<RepositoryDTO>> inFlight = new ConcurrentHashMap<>();
+
+  private final Map<String, RepositoryCacheEntry> cachedRepositories = new ConcurrentHashMap<>();
+  private volatile boolean cacheLoaded;
+
+  /**
+   * Repository details of the given issues keyed by owner/name. Every repository is fetched once,
+   * concurrently on the GitHub I/O executor; a repository already being fetched by another run is
+   * awaited instead of fetched again. Details cached within {@code github.repository-ttl-millis}
+   * are used without a request, older ones are revalidated with their ETags.
+   */
+  public Map<String, RepositoryDTO> getRepositoriesForIssues(List<GHIssue> issues) {
+    loadCache();
+    CacheStats stats = new CacheStats();
+    Map<String, GHIssue> issueByRepository = new LinkedHashMap<>();
+    issues.forEach(
+        issue -> issueByRepository.putIfAbsent(getRepositoryNameFromUrl(issue.getUrl()), issue));
+
+    List<RepositoryDTO> repositories =
+        gitHubIoExecutor.mapAll(
+            "repositories",
+            List.copyOf(issueByRepository.entrySet()),
+            entry -> {
+              // Cheap requests that decide whether the issues of a repository are kept at all
+              try (GitHubRequestScheduler.Scope scope =
+                  gitHubRequestScheduler.prioritize(GitHubRequestScheduler.Priority.HIGH)) {
+                return fetchRepository(entry.getKey(), entry.getValue(), stats);
               }
             });
-    log.info("Repo fetch done");
+
+    Map<String, RepositoryDTO> repoMap = new HashMap<>();
+    repositories.forEach(repository -> repoMap.put(repository.getFullName(), repository));
+    log.info(
+        "Repo fetch done: {} of {} repositories ({} fresh in cache, {} revalidated unchanged, {} fetched, {} stale after failed revalidation)",
+        repoMap.size(),
+        issueByRepository.size(),
+        stats.fresh.get(),
+        stats.notModified.get(),
+        stats.fetched.get(),
+        stats.stale.get());
+    if (stats.notModified.get() + stats.fetched.get() > 0) {
+      saveCache();
+    }
     return repoMap;
   }
 
+  private RepositoryDTO fetchRepository(String key, GHIssue issue, CacheStats stats) {
+    RepositoryCacheEntry cached = cachedRepositories.get(key);
+    if (cached != null
+        && System.currentTimeMillis() - cached.getValidatedAt()
+            < githubConfig.getRepositoryTtlMillis()) {
+      stats.fresh.incrementAndGet();
+      return cached.getRepository();
+    }
+    CompletableFuture<RepositoryDTO> fetch = new CompletableFuture<>();
+    CompletableFuture<RepositoryDTO> running = inFlight.putIfAbsent(key, fetch);
+    if (running != null) {
+      return running.join();
+    }
+    try {
+      log.info("Fetch repo:{} details for issue:{} ", key, issue.getHtmlUrl());
+      RepositoryDTO repository = revalidate(key, cached, stats);
+      if (repository == null) {
+        // Conditional requests failed, fall back to the client library
+        repository = mapToRepositoryDTO(issue.getRepository());
+        repository.setFullName(key);
+        stats.fetched.incrementAndGet();
+      }
+      fetch.complete(repository);
+      return repository;
+    } catch (Exception e) {
+      log.error("Repo not found for issue. url: {}, issue: {}", key, issue.getHtmlUrl());
+      fetch.complete(null);
+      return null;
+    } finally {
+      inFlight.remove(key, fetch);
+    }
+  }
+
+  /**
+   * Repository and languages via conditional requests. Unchanged parts (304) are taken from the
+   * cached entry. Returns null when the requests fail and there is nothing cached to fall back on.
+   */
+  private RepositoryDTO revalidate(String key, RepositoryCacheEntry cached, CacheStats stats) {
+    try {
+      GitHubRestClient.Conditional repositoryResponse =
+          gitHubRestClient.getIfNoneMatch(
+              "/repos/" + key, cached != null ? cached.getRepositoryEtag() : null);
+      if (repositoryResponse.notFound()) {
+        throw new IOException("Repository " + key + " not found");
+      }
+      GitHubRestClient.Conditional languagesResponse =
+          gitHubRestClient.getIfNoneMatch(
+              "/repos/" + key + "/languages", cached != null ? cached.getLanguagesEtag() : null);
+
+      boolean unchanged = repositoryResponse.notModified() && languagesResponse.notModified();
+      // A copy: the cached instance is shared with every reader of the cache snapshot
+      RepositoryDTO repository =
+          repositoryResponse.notModified()
+              ? cached.getRepository().toBuilder().build()
+              : mapToRepositoryDTO(repositoryResponse.body());
+      // Keyed like IssueDTO#getRepositoryName, whatever casing GitHub returns
+      repository.setFullName(key);
+      if (languagesResponse.notModified()) {
+        repository.setLanguages(cached.getRepository().getLanguages());
+      } else if (languagesResponse.body() != null) {
+        Map<String, Long> languages = new LinkedHashMap<>();
+        languagesResponse
+            .body()
+            .fields()
+            .forEachRemaining(field -> languages.put(field.getKey(), field.getValue().asLong()));
+        repository.setLanguages(languages);
+      }
+      (unchanged ? stats.notModified : stats.fetched).incrementAndGet();
+      cachedRepositories.put(
+          key,
+          RepositoryCacheEntry.builder()
+              .repository(repository)
+              .repositoryEtag(repositoryResponse.etag())
+              .languagesEtag(languagesResponse.etag())
+              .validatedAt(System.currentTimeMillis())
+              .build());
+      return repository;
+    } catch (Exception e) {
+      if (cached != null) {
+        log.warn("Revalidation of repo {} failed, using cached details: {}", key, e.getMessage());
+        stats.stale.incrementAndGet();
+        return cached.getRepository();
+      }
+      log.warn("Conditional fetch of repo {} failed: {}", key, e.getMessage());
+      return null;
+    }
+  }
+
+  /** Same fields as {@link #mapToRepositoryDTO(GHRepository)}, read from the REST JSON. */
+  private RepositoryDTO mapToRepositoryDTO(JsonNode json) {
+    return RepositoryDTO.builder()
+        .description(textOrNull(json, "description"))
+        .homepage(textOrNull(json, "homepage"))
+        .name(textOrNull(json, "name"))
+        .fullName(textOrNull(json, "full_name"))
+        .htmlUrl(textOrNull(json, "html_url"))
+        .gitUrl(textOrNull(json, "git_url"))
+        .sshUrl(textOrNull(json, "ssh_url"))
+        .cloneUrl(textOrNull(json, "clone_url"))
+        .owner(OwnerDTO.builder().login(json.path("owner").path("login").asText()).build())
+        .hasIssues(json.path("has_issues").asBoolean())
+        .fork(json.path("fork").asBoolean())
+        .hasDownloads(json.path("has_downloads").asBoolean())
+        .archived(json.path("archived").asBoolean())
+        .disabled(json.path("disabled").asBoolean())
+        .isPrivate(json.path("private").asBoolean())
+        .forksCount(json.path("forks_count").asInt())
+        .stargazersCount(json.path("stargazers_count").asInt())
+        .watchersCount(json.path("watchers_count").asInt())
+        .size(json.path("size").asInt())
+        .openIssuesCount(json.path("open_issues_count").asInt())
+        .subscribersCount(json.path("subscribers_count").asInt())
+        .pushedAt(textOrNull(json, "pushed_at"))
+        .build();
+  }
+
+  private void loadCache() {
+    if (cacheLoaded) {
+      return;
+    }
+    synchronized (this) {
+      if (cacheLoaded) {
+        return;
+      }
+      try {
+        Map<String, RepositoryCacheEntry> stored = repositoriesCache.load();
+        if (stored != null) {
+          cachedRepositories.putAll(stored);
+        }
+      } catch (Exception e) {
+        log.warn("Cached repository details could not be loaded, fetching all again", e);
+      }
+      cacheLoaded = true;
+    }
+  }
+
+  private synchronized void saveCache() {
+    try {
+      repositoriesCache.save(new HashMap<>(cachedRepositories));
+    } catch (Exception e) {
+      log.warn("Failed to persist repository details", e);
+    }
+  }
+
+  private static String textOrNull(JsonNode node, String field) {
+    JsonNode value = node.path(field);
+    return value.isMissingNode() || value.isNull() ? null : value.asText();
+  }
+
+  private static class CacheStats {
+    final AtomicInteger fresh = new AtomicInteger();
+    final AtomicInteger notModified = new AtomicInteger();
+    final AtomicInteger fetched = new AtomicInteger();
+    final AtomicInteger stale = new AtomicInteger();
+  }
+
   public RepositoryDTO mapToRepositoryDTO(GHRepository ghRepository) {
     RepositoryDTO repositoryDTO =
         RepositoryDTO.builder()
@@ -72,18 +269,12 @@ public class RepositoryService {
     try {
       repositoryDTO.setLanguages(ghRepository.listLanguages());
     } catch (IOException e) {
-      repositoryDTO.setLanguages(Map.of(ghRepository.getLanguage(), -1L));
+      repositoryDTO.setLanguages(
+          ghRepository.getLanguage() != null ? Map.of(ghRepository.getLanguage(), -1L) : Map.of());
     }
     return repositoryDTO;
   }
 
-  public Map<String, RepositoryDTO> mapToRepositoryDTO(Map<String, GHRepository> ghRepositoryList) {
-    Map<String, RepositoryDTO> repoMap = new HashMap<>();
-
-    ghRepositoryList.forEach((x, y) -> repoMap.put(x, mapToRepositoryDTO(y)));
-    return repoMap;
-  }
-
   public String getRepositoryNameFromUrl(URL url) {
     String[] path = url.getPath().split("/");
     return path[2] + "/" + path[3];
@@ -3,6 +3,7 @@ package org.fa.oss.contribution.helper.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.fa.oss.contribution.helper.config.RunPodConfig;
+import org.fa.oss.contribution.helper.dto.response.PodReadinessDTO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
@@ -15,9 +16,13 @@ public class RunPodManager {
 
   private final WebClient webClient;
   private final RunPodConfig runPodConfig;
+  private final VllmReadinessProbe readinessProbe;
 
-  public RunPodManager(RunPodConfig runPodConfig) {
+  private volatile PodReadinessDTO lastReadiness;
+
+  public RunPodManager(RunPodConfig runPodConfig, VllmReadinessProbe readinessProbe) {
     this.runPodConfig = runPodConfig;
+    this.readinessProbe = readinessProbe;
     this.webClient =
         WebClient.builder()
             .baseUrl("https://rest.runpod.io")
@@ -53,12 +58,20 @@ public class RunPodManager {
     }
   }
 
+  /**
+   * Waits until the pod is running and its vLLM server serves a model. Both phases poll with
+   * exponential backoff against one deadline; the time each took is kept as {@link
+   * #getLastReadiness()}.
+   */
   public String waitForRunningPod() throws InterruptedException {
+    RunPodConfig.Readiness readiness = runPodConfig.getReadiness();
+    long startNanos = System.nanoTime();
+    long deadlineNanos = startNanos + readiness.getDeadlineMs() * 1_000_000;
+    long backoffMs = readiness.getInitialBackoffMs();
     String status;
     String ip = null;
-    int maxAttempts = 40;
 
-    for (int i = 0; i < maxAttempts; i++) { // up to ~4 minutes
+    for (int attempt = 1; ; attempt++) {
       JsonNode pod =
           webClient
               .get()
@@ -70,23 +83,48 @@ public class RunPodManager {
       status = pod.get("desiredStatus").asText();
       ip = pod.get("publicIp").asText();
       if ("RUNNING".equals(status) && ip != null && !ip.trim().equals("")) {
-        ip = pod.get("publicIp").asText();
         break;
       }
+      long remainingMs = (deadlineNanos - System.nanoTime()) / 1_000_000;
+      if (remainingMs <= 0) {
+        throw new RuntimeException(
+            "Pod never became ready after " + readiness.getDeadlineMs() / 1000 + " seconds");
+      }
       log.warn(
-          "Attempt {}: Pod status (status={}). Pod public ip not available yet. Waiting 1 minute before retry.",
-          i + 1,
-          status);
-      Thread.sleep(60_000);
+          "Attempt {}: Pod status (status={}). Pod public ip not available yet. Waiting {} ms before retry.",
+          attempt,
+          status,
+          Math.min(backoffMs, remainingMs));
+      Thread.sleep(Math.min(backoffMs, remainingMs));
+      backoffMs = Math.min(backoffMs * 2, readiness.getMaxBackoffMs());
     }
-
-    if (ip == null) throw new RuntimeException("Pod never became ready after 40 minutes");
+    long podRunningMillis = (System.nanoTime() - startNanos) / 1_000_000;
     log.info("Public ip of pod {}:{}", runPodConfig.getVllmPodId(), ip);
-    log.info("Waiting for 3 minutes to let LLM initialise on pod");
-    Thread.sleep(180_000);
+
+    VllmReadinessProbe.Result result = readinessProbe.awaitReady(deadlineNanos);
+    long modelReadyMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    lastReadiness =
+        new PodReadinessDTO(
+            runPodConfig.getVllmPodId(),
+            System.currentTimeMillis() - modelReadyMillis,
+            podRunningMillis,
+            modelReadyMillis,
+            result.probes(),
+            result.model());
+    log.info(
+        "Pod {} ready: running after {} ms, model {} served after {} ms ({} probes)",
+        runPodConfig.getVllmPodId(),
+        podRunningMillis,
+        result.model(),
+        modelReadyMillis,
+        result.probes());
     return ip;
   }
 
+  public PodReadinessDTO getLastReadiness() {
+    return lastReadiness;
+  }
+
   public boolean stopPod() {
     HttpStatusCode status =
         webClient
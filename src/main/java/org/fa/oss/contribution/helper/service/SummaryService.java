@@ -1,33 +1,36 @@
 package org.fa.oss.contribution.helper.service;
 
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.fa.oss.contribution.helper.cache.CentralCacheService;
+import org.fa.oss.contribution.helper.cache.SummaryJournal;
+import org.fa.oss.contribution.helper.cache.SummaryResultCache;
+import org.fa.oss.contribution.helper.cache.SummarySnapshots;
 import org.fa.oss.contribution.helper.config.GithubConfig;
 import org.fa.oss.contribution.helper.config.RunPodConfig;
+import org.fa.oss.contribution.helper.config.SummaryProperties;
 import org.fa.oss.contribution.helper.dto.response.IssueDTO;
 import org.fa.oss.contribution.helper.dto.response.IssueSummaryResultListDTO;
 import org.fa.oss.contribution.helper.dto.response.SummaryDTO;
 import org.fa.oss.contribution.helper.model.IssueSummary;
 import org.fa.oss.contribution.helper.model.OpenAIChatCompletionRequest;
 import org.fa.oss.contribution.helper.model.OpenAIChatCompletionResponse;
+import org.fa.oss.contribution.helper.model.PromptPlan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -35,14 +38,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 
 @Service
 @Slf4j
 public class SummaryService {
 
-  @Autowired private RunPodManager runPodManager;
   @Autowired private RunPodConfig runPodConfig;
   @Autowired private IssuesService issuesService;
   @Autowired private ObjectMapper objectMapper;
@@ -52,11 +56,23 @@ public class SummaryService {
 
   @Autowired private GithubConfig githubConfig;
 
-  private static final int HUNDRED_MB = 100 * 1024 * 1024;
+  @Autowired private GitHubUploader gitHubUploader;
+
+  @Autowired private SummarySnapshots summarySnapshots;
+
+  @Autowired private LlmDispatcher llmDispatcher;
+
+  @Autowired private SummaryProperties summaryProperties;
 
-  private static final int CONTEXT_TOKEN_LIMIT = 8192;
+  @Autowired private SummaryResultCache summaryResultCache;
 
-  private String rawJson = "{}";
+  @Autowired private SummaryJournal summaryJournal;
+
+  @Autowired private PromptPlanner promptPlanner;
+
+  @Autowired private PodLeaseManager podLeaseManager;
+
+  private static final int HUNDRED_MB = 100 * 1024 * 1024;
 
   private final WebClient webClient =
       WebClient.builder()
@@ -69,106 +85,28 @@ public class SummaryService {
 
   @Autowired
   public SummaryService(
-      RunPodManager runPodManager,
       RunPodConfig runPodConfig,
       IssuesService issuesService,
       ObjectMapper objectMapper,
       CentralCacheService centralCacheService,
       PromptService promptService) {
-    this.runPodManager = runPodManager;
     this.runPodConfig = runPodConfig;
     this.issuesService = issuesService;
     this.objectMapper = objectMapper;
     this.centralCacheService = centralCacheService;
     this.promptService = promptService;
-    reloadRawSummary();
   }
 
   public IssueSummaryResultListDTO generateSummaries(List<IssueDTO> issueDTOS) {
-    final ExecutorService ioExecutor = Executors.newFixedThreadPool(1);
-    try {
-      runPodManager.startPod();
-      runPodManager.waitForRunningPod();
-      List<IssueDTO> filteredIssues =
-          issueDTOS.parallelStream()
-              .filter(
-                  issue -> {
-                    try {
-                      String prompt = promptService.preparePrompt(issue);
-                      long tokenCount = TokenCounter.countTokens(prompt);
-                      if (tokenCount < CONTEXT_TOKEN_LIMIT) {
-                        return true;
-                      } else {
-                        log.warn(
-                            "Token check failed. issue: {}, token count: {}, limit: {}",
-                            issue.getUrl(),
-                            tokenCount,
-                            CONTEXT_TOKEN_LIMIT);
-                        return false;
-                      }
-                    } catch (Exception e) {
-                      log.error(
-                          "Token check failed due to exception for issue {}: {}",
-                          issue.getUrl(),
-                          e.getMessage(),
-                          e);
-                      return false;
-                    }
-                  })
-              .collect(Collectors.toList());
-
-      List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
-      List<CompletableFuture<IssueSummary>> futures =
-          filteredIssues.stream()
-              .map(
-                  issue ->
-                      CompletableFuture.supplyAsync(
-                          () -> {
-                            try {
-                              return generateIssueSummaryUsingOpenAI(issue);
-                            } catch (WebClientResponseException e) {
-                              log.error(
-                                  "Request Error - likely context length exceeded: {}",
-                                  e.getResponseBodyAsString());
-                              errors.add(e);
-                              return null;
-                            } catch (Exception e) {
-                              errors.add(e);
-                              log.error(
-                                  "Skipping issue due to exception: {} {}",
-                                  issue.getId(),
-                                  issue.getTitle(),
-                                  e);
-                              return null;
-                            }
-                          },
-                          ioExecutor))
-              .collect(Collectors.toList());
-
-      List<IssueSummary> summaries =
-          futures.stream()
-              .map(
-                  future -> {
-                    try {
-                      return future.get(); // or future.join() if you prefer unchecked
-                    } catch (Exception e) {
-                      log.error("Error while generating summary", e);
-                      errors.add(e);
-                      return null;
-                    }
-                  })
-              .filter(Objects::nonNull)
-              .collect(Collectors.toList());
-
-      if (!errors.isEmpty()) {
-        log.error("Summary generation completed with {} errors", errors.size());
-      }
+    try (PodLeaseManager.Lease lease = podLeaseManager.acquire("scheduled-summaries")) {
+      List<IssueSummary> summaries = summarizeIssues("scheduled", issueDTOS, true);
 
       IssueSummaryResultListDTO result =
           IssueSummaryResultListDTO.builder().summaries(summaries).count(summaries.size()).build();
       log.info("Saving summaries in cache");
       centralCacheService.getSummaryCache().save(result);
       log.info("Summaries saved in cache");
+      summaryJournal.compact();
       return result;
 
     } catch (Exception e) {
@@ -177,94 +115,12 @@ public class SummaryService {
           .summaries(Collections.emptyList())
           .count(Collections.emptyList().size())
           .build();
-    } finally {
-      try {
-        runPodManager.stopPod();
-      } catch (Exception ex) {
-        log.warn("Error stopping pod", ex);
-      }
-      if (ioExecutor != null) {
-        ioExecutor.shutdown();
-      }
     }
   }
 
   public IssueSummaryResultListDTO generateSummary(List<IssueDTO> issueDTOS) {
-    final ExecutorService ioExecutor = Executors.newFixedThreadPool(1);
     try {
-      List<IssueDTO> filteredIssues =
-          issueDTOS.parallelStream()
-              .filter(
-                  issue -> {
-                    try {
-                      String prompt = promptService.preparePrompt(issue);
-                      long tokenCount = TokenCounter.countTokens(prompt);
-                      if (tokenCount < CONTEXT_TOKEN_LIMIT) {
-                        return true;
-                      } else {
-                        log.warn(
-                            "Token check failed. issue: {}, token count: {}, limit: {}",
-                            issue.getUrl(),
-                            tokenCount,
-                            CONTEXT_TOKEN_LIMIT);
-                        return false;
-                      }
-                    } catch (Exception e) {
-                      log.error(
-                          "Token check failed due to exception for issue {}: {}",
-                          issue.getUrl(),
-                          e.getMessage(),
-                          e);
-                      return false;
-                    }
-                  })
-              .collect(Collectors.toList());
-
-      List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
-      List<CompletableFuture<IssueSummary>> futures =
-          filteredIssues.stream()
-              .map(
-                  issue ->
-                      CompletableFuture.supplyAsync(
-                          () -> {
-                            try {
-                              return generateIssueSummaryUsingOpenAI(issue);
-                            } catch (WebClientResponseException e) {
-                              log.error(
-                                  "Request Error - likely context length exceeded: {}",
-                                  e.getResponseBodyAsString());
-                              errors.add(e);
-                              return null;
-                            } catch (Exception e) {
-                              errors.add(e);
-                              log.error(
-                                  "Skipping issue due to exception: {} {}",
-                                  issue.getId(),
-                                  issue.getTitle(),
-                                  e);
-                              return null;
-                            }
-                          },
-                          ioExecutor))
-              .collect(Collectors.toList());
-
-      List<IssueSummary> summaries =
-          futures.stream()
-              .map(
-                  future -> {
-                    try {
-                      return future.get(); // or future.join() if you prefer unchecked
-                    } catch (Exception e) {
-                      log.error("Error while generating summary", e);
-                      return null;
-                    }
-                  })
-              .filter(Objects::nonNull)
-              .collect(Collectors.toList());
-
-      if (!errors.isEmpty()) {
-        log.warn("Summary generation completed with {} errors", errors.size());
-      }
+      List<IssueSummary> summaries = summarizeIssues("on-demand", issueDTOS, false);
 
       IssueSummaryResultListDTO result =
           IssueSummaryResultListDTO.builder().summaries(summaries).count(summaries.size()).build();
@@ -279,50 +135,322 @@ public class SummaryService {
           .summaries(Collections.emptyList())
           .count(Collections.emptyList().size())
           .build();
-    } finally {
+    }
+  }
 
-      if (ioExecutor != null) {
-        ioExecutor.shutdown();
+  /**
+   * Summaries carried over for a stream and the prompts of the issues it still has to summarize.
+   */
+  private record StreamPlan(List<IssueSummary> carriedOver, List<PromptPlan> plans) {}
+
+  /**
+   * Streams summaries of the given issues as soon as each one is ready. Unchanged issues with a
+   * stored summary are emitted first; the rest are dispatched like a scheduled run's, sharing the
+   * {@link LlmDispatcher} limit with any run in progress, with at most {@code
+   * summary.stream-concurrency} of them dispatched at once. No thread is held while a request waits
+   * for its slot or its response. The stream is not written to the summaries cache, every generated
+   * result lands in the result cache.
+   */
+  public Flux<IssueSummary> streamSummaries(List<IssueDTO> issueDTOS) {
+    return Mono.fromCallable(
+            () -> {
+              // Per subscription, so a retry or a second subscriber does not emit duplicates
+              List<IssueSummary> carriedOver = new ArrayList<>();
+              Map<Long, IssueSummary> reusable =
+                  summaryProperties.isIncremental()
+                      ? loadPreviousSummaries()
+                      : Collections.emptyMap();
+              List<IssueDTO> pendingIssues = carryOverUnchanged(issueDTOS, reusable, carriedOver);
+              return new StreamPlan(
+                  carriedOver,
+                  promptPlanner.plan(
+                      pendingIssues,
+                      summaryProperties.getPromptTokenLimit(
+                          OpenAIChatCompletionRequest.DEFAULT_MODEL)));
+            })
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMapMany(
+            streamPlan -> {
+              LlmDispatcher.Run run = llmDispatcher.newRun("stream");
+              Flux<IssueSummary> generated =
+                  Flux.fromIterable(streamPlan.plans())
+                      .flatMap(
+                          plan ->
+                              // Waits for a dispatcher slot without holding a thread
+                              run.dispatch(() -> summarizeIssue(plan.issue(), plan.prompt(), run))
+                                  .onErrorResume(
+                                      e -> {
+                                        log.error(
+                                            "Skipping issue due to exception: {} {}",
+                                            plan.issue().getId(),
+                                            plan.issue().getTitle(),
+                                            e);
+                                        return Mono.empty();
+                                      }),
+                          summaryProperties.getStreamConcurrency());
+              return Flux.concat(Flux.fromIterable(streamPlan.carriedOver()), generated)
+                  .doFinally(signal -> run.finish());
+            });
+  }
+
+  /**
+   * Summarizes the issues that have no reusable summary yet. Checkpointed runs append every
+   * completed summary to the {@link SummaryJournal} and, when resuming, reuse what the journal
+   * already holds from an interrupted run.
+   */
+  private List<IssueSummary> summarizeIssues(
+      String runName, List<IssueDTO> issueDTOS, boolean checkpointed) {
+    Map<Long, IssueSummary> reusable = new HashMap<>();
+    if (summaryProperties.isIncremental()) {
+      reusable.putAll(loadPreviousSummaries());
+    }
+    if (checkpointed) {
+      if (summaryProperties.isResumeFromJournal()) {
+        reusable.putAll(summaryJournal.readCompleted());
+      } else {
+        summaryJournal.reset();
       }
     }
+
+    List<IssueSummary> carriedOver = new ArrayList<>();
+    List<IssueDTO> pendingIssues = carryOverUnchanged(issueDTOS, reusable, carriedOver);
+
+    int tokenLimit =
+        summaryProperties.getPromptTokenLimit(OpenAIChatCompletionRequest.DEFAULT_MODEL);
+    List<PromptPlan> plans = promptPlanner.plan(pendingIssues, tokenLimit);
+
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    LlmDispatcher.Run run = llmDispatcher.newRun(runName);
+    List<IssueSummary> summaries = new ArrayList<>();
+    List<PromptPlan> singleIssues = plans;
+    if (summaryProperties.getBatch().isEnabled()) {
+      singleIssues = new ArrayList<>();
+      summaries.addAll(summarizeInBatches(run, plans, singleIssues, checkpointed));
+    }
+
+    List<PromptPlan> singleRequestIssues = singleIssues;
+    List<CompletableFuture<IssueSummary>> futures =
+        singleRequestIssues.stream()
+            .map(
+                plan ->
+                    run.submit(
+                        () -> {
+                          IssueSummary summary =
+                              generateIssueSummaryUsingOpenAI(plan.issue(), plan.prompt(), run);
+                          if (checkpointed && summary != null) {
+                            summaryJournal.append(summary);
+                          }
+                          return summary;
+                        }))
+            .collect(Collectors.toList());
+
+    for (int i = 0; i < futures.size(); i++) {
+      IssueDTO issue = singleRequestIssues.get(i).issue();
+      try {
+        IssueSummary summary = futures.get(i).get();
+        if (summary != null) {
+          summaries.add(summary);
+        }
+      } catch (ExecutionException e) {
+        errors.add(e.getCause());
+        if (e.getCause() instanceof WebClientResponseException responseException) {
+          log.error(
+              "Request Error - likely context length exceeded: {}",
+              responseException.getResponseBodyAsString());
+        } else {
+          log.error(
+              "Skipping issue due to exception: {} {}",
+              issue.getId(),
+              issue.getTitle(),
+              e.getCause());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.error("Interrupted while generating summary", e);
+        errors.add(e);
+        break;
+      }
+    }
+    run.finish();
+
+    if (!errors.isEmpty()) {
+      log.error("Summary generation completed with {} errors", errors.size());
+    }
+    carriedOver.addAll(summaries);
+    return carriedOver;
   }
 
-  public IssueSummaryResultListDTO getSummaries(int limit) {
-    IssueSummaryResultListDTO cached = centralCacheService.getSummaryCache().load();
-    if (cached != null) {
-      log.info("Loaded {} summaries from cache", cached.getCount());
-      return cached;
+  /**
+   * Adds a summary to {@code carriedOver} for every issue whose reusable summary has the same
+   * fingerprint and returns the issues that still need one.
+   */
+  private List<IssueDTO> carryOverUnchanged(
+      List<IssueDTO> issueDTOS, Map<Long, IssueSummary> reusable, List<IssueSummary> carriedOver) {
+    if (reusable.isEmpty()) {
+      return issueDTOS;
     }
-    return generateSummaries(limit);
+    List<IssueDTO> pendingIssues = new ArrayList<>();
+    for (IssueDTO issue : issueDTOS) {
+      IssueSummary existing = reusable.get(issue.getId());
+      String fingerprint = IssueFingerprint.of(issue);
+      if (existing != null && fingerprint.equals(existing.getFingerprint())) {
+        carriedOver.add(
+            IssueSummary.builder()
+                .issueDTO(issue)
+                .summary(existing.getSummary())
+                .updatedAt(existing.getUpdatedAt())
+                .fingerprint(fingerprint)
+                .build());
+      } else {
+        pendingIssues.add(issue);
+      }
+    }
+    log.info(
+        "Incremental run: {} unchanged or journaled summaries carried over, {} issues to summarize",
+        carriedOver.size(),
+        pendingIssues.size());
+    return pendingIssues;
   }
 
-  private void reloadRawSummary() {
-    try {
-      if (new File(centralCacheService.getSummaryCache().filePath()).exists()) {
-        rawJson = Files.readString(Path.of(centralCacheService.getSummaryCache().filePath()));
+  /**
+   * Packs small issues into multi-issue requests and dispatches them. Issues that are too large to
+   * batch, or that a batch response did not cover (malformed JSON, missing or unknown issueId,
+   * failed request), are added to {@code singleIssues} for the one-issue-per-request path.
+   */
+  private List<IssueSummary> summarizeInBatches(
+      LlmDispatcher.Run run,
+      List<PromptPlan> issues,
+      List<PromptPlan> singleIssues,
+      boolean checkpointed) {
+    List<List<PromptPlan>> batches = packBatches(issues, singleIssues);
+    log.info(
+        "Batched mode: {} issues packed into {} requests, {} sent on their own",
+        issues.size() - singleIssues.size(),
+        batches.size(),
+        singleIssues.size());
+
+    List<CompletableFuture<List<IssueSummary>>> futures =
+        batches.stream()
+            .map(
+                batch ->
+                    run.submit(
+                        () -> {
+                          List<IssueSummary> batchSummaries =
+                              generateBatchSummariesUsingOpenAI(
+                                  batch.stream().map(PromptPlan::issue).toList(), run);
+                          if (checkpointed) {
+                            batchSummaries.forEach(summaryJournal::append);
+                          }
+                          return batchSummaries;
+                        }))
+            .collect(Collectors.toList());
+
+    List<IssueSummary> summaries = new ArrayList<>();
+    for (int i = 0; i < futures.size(); i++) {
+      List<PromptPlan> batch = batches.get(i);
+      try {
+        List<IssueSummary> batchSummaries = futures.get(i).get();
+        Set<IssueDTO> covered = Collections.newSetFromMap(new IdentityHashMap<>());
+        batchSummaries.forEach(summary -> covered.add(summary.getIssueDTO()));
+        batch.stream().filter(plan -> !covered.contains(plan.issue())).forEach(singleIssues::add);
+        summaries.addAll(batchSummaries);
+      } catch (ExecutionException e) {
+        log.warn(
+            "Batch of {} issues failed, falling back to one request per issue",
+            batch.size(),
+            e.getCause());
+        singleIssues.addAll(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.error("Interrupted while generating batched summaries", e);
+        break;
+      }
+    }
+    return summaries;
+  }
+
+  private List<List<PromptPlan>> packBatches(
+      List<PromptPlan> issues, List<PromptPlan> singleIssues) {
+    SummaryProperties.Batch batchProperties = summaryProperties.getBatch();
+    int templateTokens = promptService.getBatchPromptTemplateTokens();
+
+    List<List<PromptPlan>> batches = new ArrayList<>();
+    List<PromptPlan> current = new ArrayList<>();
+    long currentTokens = templateTokens;
+    for (PromptPlan issue : issues) {
+      int tokens = promptService.estimateBatchIssueTokens(issue.sectionTokens());
+      if (tokens > batchProperties.getSmallIssueTokens()
+          || templateTokens + tokens > batchProperties.getTokenBudget()) {
+        singleIssues.add(issue);
+        continue;
       }
-    } catch (IOException e) {
-      log.error("Summary load failed", e);
+      if (current.size() >= batchProperties.getMaxIssuesPerBatch()
+          || currentTokens + tokens > batchProperties.getTokenBudget()) {
+        addBatch(current, batches, singleIssues);
+        current = new ArrayList<>();
+        currentTokens = templateTokens;
+      }
+      current.add(issue);
+      currentTokens += tokens;
+    }
+    addBatch(current, batches, singleIssues);
+    return batches;
+  }
+
+  private void addBatch(
+      List<PromptPlan> batch, List<List<PromptPlan>> batches, List<PromptPlan> singleIssues) {
+    if (batch.size() > 1) {
+      batches.add(batch);
+    } else {
+      singleIssues.addAll(batch);
+    }
+  }
+
+  private Map<Long, IssueSummary> loadPreviousSummaries() {
+    IssueSummaryResultListDTO cached;
+    try {
+      cached = centralCacheService.getSummaryCache().load();
+    } catch (Exception e) {
+      log.warn("Previous summaries could not be loaded, summarizing every issue", e);
+      return Collections.emptyMap();
     }
+    if (cached == null || cached.getSummaries() == null) {
+      return Collections.emptyMap();
+    }
+    return cached.getSummaries().stream()
+        .filter(summary -> summary.getIssueDTO() != null && summary.getFingerprint() != null)
+        .collect(
+            Collectors.toMap(
+                summary -> summary.getIssueDTO().getId(),
+                summary -> summary,
+                (first, second) -> second.getUpdatedAt() >= first.getUpdatedAt() ? second : first));
   }
 
-  public String generateSummariesRaw(int limit) throws IOException {
-    return rawJson;
+  public IssueSummaryResultListDTO getSummaries(int limit) {
+    IssueSummaryResultListDTO cached = centralCacheService.getSummaryCache().load();
+    if (cached != null) {
+      log.info("Loaded {} summaries from cache", cached.getCount());
+      return cached;
+    }
+    return generateSummaries(limit);
   }
 
   public IssueSummaryResultListDTO generateSummaries(int limit) {
-    List<IssueDTO> issues;
+    List<IssueDTO> filteredIssues;
     if (centralCacheService.getIssueCache() != null) {
-      issues = centralCacheService.getIssueCache().load();
+      // Parses the cached issues one at a time, and none past the limit; without a limit the run
+      // plans every issue, so all of them are collected
+      try (Stream<IssueDTO> issues = centralCacheService.getIssueCache().stream()) {
+        filteredIssues = maybeLimit(issues, limit).collect(Collectors.toList());
+      }
     } else {
-      issues = issuesService.getIssues();
+      filteredIssues =
+          maybeLimit(issuesService.getIssues().stream(), limit).collect(Collectors.toList());
     }
 
-    List<IssueDTO> filteredIssues = maybeLimit(issues.stream(), limit).collect(Collectors.toList());
-
     IssueSummaryResultListDTO issueSummaryResultListDTO = generateSummaries(filteredIssues);
     uploadSummaryJSONToCDN();
-    reloadRawSummary();
+    summarySnapshots.publish();
     return issueSummaryResultListDTO;
   }
 
@@ -333,73 +461,73 @@ public class SummaryService {
       String timestamp = LocalDateTime.now().format(formatter);
       String commitMessage = "Update summaries.json at " + timestamp;
 
-      GitHubUploader uploader =
-          new GitHubUploader(githubConfig.getToken(), githubConfig.getSummaryCdnRepo());
-      uploader.uploadJsonFile(
-          centralCacheService.getSummaryCache().filePath(), "summaries.json", commitMessage);
+      centralCacheService.getSummaryCache().export();
+
+      gitHubUploader.uploadJsonFile(
+          githubConfig.getSummaryCdnRepo(),
+          centralCacheService.getSummaryCache().filePath(),
+          "summaries.json",
+          commitMessage);
       log.info("Uploaded summaries.json to gshubhamcode/summary-cdn");
     } catch (Exception e) {
       log.error("Upload failed: Unable to commit summaries.json to GitHub repo summary-cdn'.", e);
     }
   }
 
-  private IssueSummary generateIssueSummaryUsingOpenAI(IssueDTO issue) {
-    String generatedText = "";
-    String responseJson = "";
-
-    try {
+  private IssueSummary generateIssueSummaryUsingOpenAI(
+      IssueDTO issue, String prompt, LlmDispatcher.Run run) {
+    return summarizeIssue(issue, prompt, run).block();
+  }
 
-      String prompt = promptService.preparePrompt(issue);
-
-      OpenAIChatCompletionRequest request =
-          OpenAIChatCompletionRequest.getDefaultChatRequest(prompt);
-      log.info("Generating summary for issue: " + issue.getId() + " title: " + issue.getTitle());
-      String chatCompletionUrl =
-          "https://" + runPodConfig.getVllmPodId() + "-8000.proxy.runpod.net/v1/chat/completions";
-
-      log.info("Request body: {}", objectMapper.writeValueAsString(request));
-
-      Mono<String> responseMono =
-          webClient
-              .post()
-              .uri(chatCompletionUrl)
-              .header("Authorization", "Bearer " + runPodConfig.getVllmApiKey())
-              .bodyValue(request)
-              .retrieve()
-              .onStatus(
-                  status -> status.is5xxServerError() || status.value() == 504,
-                  clientResponse ->
-                      clientResponse
-                          .bodyToMono(String.class)
-                          .defaultIfEmpty("Unknown error")
-                          .flatMap(
-                              errorBody -> {
-                                System.err.println("Server error: " + errorBody);
-                                return Mono.error(
-                                    new RuntimeException("Server error: " + errorBody));
-                              }))
-              .bodyToMono(String.class)
-              .timeout(Duration.ofSeconds(60)) // hard timeout
-              .retryWhen(
-                  Retry.backoff(3, Duration.ofSeconds(5))
-                      .filter(
-                          throwable ->
-                              throwable instanceof TimeoutException
-                                  || throwable instanceof WebClientResponseException.BadGateway
-                                  || throwable instanceof WebClientResponseException.GatewayTimeout
-                                  || (throwable instanceof WebClientResponseException
-                                      && ((WebClientResponseException) throwable)
-                                          .getStatusCode()
-                                          .is5xxServerError()))
-                      .onRetryExhaustedThrow(
-                          (retryBackoffSpec, retrySignal) -> retrySignal.failure()));
-
-      responseJson = responseMono.block(); // blocking for final value
+  /**
+   * Summary of one issue from the result cache or a chat completion. Completes empty when the model
+   * output cannot be parsed and with an error when the request fails. Cache reads and writes touch
+   * the disk, so they run on the bounded elastic scheduler rather than on a WebClient thread.
+   */
+  private Mono<IssueSummary> summarizeIssue(IssueDTO issue, String prompt, LlmDispatcher.Run run) {
+    OpenAIChatCompletionRequest request = OpenAIChatCompletionRequest.getDefaultChatRequest(prompt);
+    String cacheKey = summaryResultCache.keyFor(request);
+    return Mono.fromCallable(() -> summaryResultCache.get(cacheKey))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(
+            cachedSummary -> {
+              if (cachedSummary.isPresent()) {
+                log.info(
+                    "Summary cache hit for issue: {} title: {}", issue.getId(), issue.getTitle());
+                return Mono.just(buildIssueSummary(issue, cachedSummary.get()));
+              }
+              long startMillis = System.currentTimeMillis();
+              log.info(
+                  "Generating summary for issue: " + issue.getId() + " title: " + issue.getTitle());
+              try {
+                log.info("Request body: {}", objectMapper.writeValueAsString(request));
+              } catch (JsonProcessingException e) {
+                log.warn("Request body of issue {} could not be logged", issue.getId(), e);
+              }
+              return postChatCompletionAsync(request)
+                  .publishOn(Schedulers.boundedElastic())
+                  .flatMap(
+                      responseJson ->
+                          Mono.justOrEmpty(
+                              parseIssueSummary(issue, responseJson, cacheKey, startMillis, run)));
+            });
+  }
 
+  private IssueSummary parseIssueSummary(
+      IssueDTO issue,
+      String responseJson,
+      String cacheKey,
+      long startMillis,
+      LlmDispatcher.Run run) {
+    String generatedText = "";
+    try {
       // Parse the vLLM / OpenAI completion response
       OpenAIChatCompletionResponse completionResponse =
           objectMapper.readValue(responseJson, OpenAIChatCompletionResponse.class);
-      log.info(completionResponse.getUsage().toString());
+      if (completionResponse.getUsage() != null) {
+        log.info(completionResponse.getUsage().toString());
+        run.recordTokens(completionResponse.getUsage().getTotal_tokens());
+      }
 
       // Extract the generated text from response (usually in choices[0].text or .message.content)
       generatedText =
@@ -422,12 +550,9 @@ public class SummaryService {
         log.error("Failed to parse generated summary text: {} error: {}", generatedText, e);
         return null;
       }
+      summaryResultCache.put(cacheKey, summaryDTO, System.currentTimeMillis() - startMillis);
 
-      return IssueSummary.builder()
-          .issueDTO(issue)
-          .summary(summaryDTO)
-          .updatedAt(Instant.now().getEpochSecond())
-          .build();
+      return buildIssueSummary(issue, summaryDTO);
 
     } catch (Exception e) {
       log.error("Failed to parse completion response: {}  error: {}", responseJson, e);
@@ -435,6 +560,141 @@ public class SummaryService {
     }
   }
 
+  private List<IssueSummary> generateBatchSummariesUsingOpenAI(
+      List<IssueDTO> batch, LlmDispatcher.Run run) {
+    List<IssueSummary> summaries = new ArrayList<>();
+    List<IssueDTO> pending = new ArrayList<>();
+    List<String> cacheKeys = new ArrayList<>();
+    for (IssueDTO issue : batch) {
+      String cacheKey =
+          summaryResultCache.keyFor(
+              OpenAIChatCompletionRequest.getBatchChatRequest(
+                  promptService.prepareBatchPrompt(List.of(issue))));
+      Optional<SummaryDTO> cachedSummary = summaryResultCache.get(cacheKey);
+      if (cachedSummary.isPresent()) {
+        summaries.add(buildIssueSummary(issue, cachedSummary.get()));
+      } else {
+        pending.add(issue);
+        cacheKeys.add(cacheKey);
+      }
+    }
+    if (pending.isEmpty()) {
+      return summaries;
+    }
+
+    int requested = pending.size();
+    OpenAIChatCompletionRequest request =
+        OpenAIChatCompletionRequest.getBatchChatRequest(promptService.prepareBatchPrompt(pending));
+    log.info(
+        "Generating batched summaries for issues: {}",
+        pending.stream().map(IssueDTO::getUrl).toList());
+    long startMillis = System.currentTimeMillis();
+    String responseJson = postChatCompletion(request);
+    long perIssueMillis = (System.currentTimeMillis() - startMillis) / requested;
+
+    List<OpenAIChatCompletionResponse.ToolCall> toolCalls;
+    try {
+      OpenAIChatCompletionResponse completionResponse =
+          objectMapper.readValue(responseJson, OpenAIChatCompletionResponse.class);
+      if (completionResponse.getUsage() != null) {
+        log.info(completionResponse.getUsage().toString());
+        run.recordTokens(completionResponse.getUsage().getTotal_tokens());
+      }
+      toolCalls = completionResponse.getChoices().get(0).getMessage().getTool_calls();
+    } catch (Exception e) {
+      log.error("Malformed batch completion response: {} error: {}", responseJson, e);
+      return summaries;
+    }
+
+    for (OpenAIChatCompletionResponse.ToolCall toolCall :
+        toolCalls != null ? toolCalls : List.<OpenAIChatCompletionResponse.ToolCall>of()) {
+      String arguments = toolCall.getFunction() != null ? toolCall.getFunction().arguments : null;
+      try {
+        JsonNode argumentsNode = objectMapper.readTree(arguments);
+        int index =
+            argumentsNode.path(OpenAIChatCompletionRequest.BATCH_ISSUE_NUMBER_PROPERTY).asInt(0)
+                - 1;
+        if (index < 0 || index >= requested || pending.get(index) == null) {
+          log.warn("Batch tool call for unknown or already summarized issue: {}", arguments);
+          continue;
+        }
+        SummaryDTO summaryDTO = objectMapper.treeToValue(argumentsNode, SummaryDTO.class);
+        if (summaryDTO.getMain() == null) {
+          log.warn("Batch tool call without summary for issue {}: {}", index + 1, arguments);
+          continue;
+        }
+        summaryDTO.setValidJson(true);
+        summaryDTO.setSummaryText("");
+        summaryResultCache.put(cacheKeys.get(index), summaryDTO, perIssueMillis);
+        summaries.add(buildIssueSummary(pending.get(index), summaryDTO));
+        pending.set(index, null);
+      } catch (Exception e) {
+        log.warn("Skipping malformed batch tool call: {} error: {}", arguments, e.getMessage());
+      }
+    }
+    long missing = pending.stream().filter(Objects::nonNull).count();
+    if (missing > 0) {
+      log.warn("Batch response covered {} of {} issues", requested - missing, requested);
+    }
+    return summaries;
+  }
+
+  private IssueSummary buildIssueSummary(IssueDTO issue, SummaryDTO summaryDTO) {
+    return IssueSummary.builder()
+        .issueDTO(issue)
+        .summary(summaryDTO)
+        .updatedAt(Instant.now().getEpochSecond())
+        .fingerprint(IssueFingerprint.of(issue))
+        .build();
+  }
+
+  private String postChatCompletion(OpenAIChatCompletionRequest request) {
+    // Network failures propagate so the dispatcher can back off on a saturated pod
+    return postChatCompletionAsync(request).block(); // blocking for final value
+  }
+
+  private Mono<String> postChatCompletionAsync(OpenAIChatCompletionRequest request) {
+    String chatCompletionUrl = runPodConfig.getVllmBaseUrl() + "/v1/chat/completions";
+
+    return webClient
+        .post()
+        .uri(chatCompletionUrl)
+        .header("Authorization", "Bearer " + runPodConfig.getVllmApiKey())
+        .bodyValue(request)
+        .retrieve()
+        .onStatus(
+            status -> status.is5xxServerError() || status.value() == 504,
+            clientResponse ->
+                clientResponse
+                    .bodyToMono(String.class)
+                    .defaultIfEmpty("Unknown error")
+                    .flatMap(
+                        errorBody -> {
+                          log.error("Server error: {}", errorBody);
+                          return Mono.error(
+                              WebClientResponseException.create(
+                                  clientResponse.statusCode().value(),
+                                  "Server error: " + errorBody,
+                                  clientResponse.headers().asHttpHeaders(),
+                                  errorBody.getBytes(StandardCharsets.UTF_8),
+                                  StandardCharsets.UTF_8));
+                        }))
+        .bodyToMono(String.class)
+        .timeout(Duration.ofSeconds(60)) // hard timeout
+        .retryWhen(
+            Retry.backoff(3, Duration.ofSeconds(5))
+                .filter(
+                    throwable ->
+                        throwable instanceof TimeoutException
+                            || throwable instanceof WebClientResponseException.BadGateway
+                            || throwable instanceof WebClientResponseException.GatewayTimeout
+                            || (throwable instanceof WebClientResponseException
+                                && ((WebClientResponseException) throwable)
+                                    .getStatusCode()
+                                    .is5xxServerError()))
+                .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> retrySignal.failure()));
+  }
+
   private <T> Stream<T> maybeLimit(Stream<T> stream, int limit) {
     return limit > 0 ? stream.limit(limit) : stream;
   }
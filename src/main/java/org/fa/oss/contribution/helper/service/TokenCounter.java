@@ -2,6 +2,7 @@ package org.fa.oss.contribution.helper.service;
 
 import com.knuddels.jtokkit.Encodings;
 import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingResult;
 
 public class TokenCounter {
   private static final Encoding encoding =
@@ -17,4 +18,13 @@ public class TokenCounter {
   public static boolean isWithinLimit(String input, int maxTokens) {
     return countTokens(input) <= maxTokens;
   }
+
+  /** Longest prefix of {@code input} that encodes to at most {@code maxTokens} tokens. */
+  public static String truncate(String input, int maxTokens) {
+    if (encoding == null) {
+      throw new RuntimeException("Token counter not initialized");
+    }
+    EncodingResult result = encoding.encode(input, Math.max(0, maxTokens));
+    return result.isTruncated() ? encoding.decode(result.getTokens()) : input;
+  }
 }
@@ -0,0 +1,93 @@
+package org.fa.oss.contribution.helper.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.fa.oss.contribution.helper.config.RunPodConfig;
+import org.fa.oss.contribution.helper.model.OpenAIChatCompletionRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Polls the OpenAI-compatible {@code /v1/models} endpoint of the vLLM server until it lists a
+ * model. Failed probes (connection refused, proxy errors while the server boots, timeouts) are
+ * retried with exponential backoff until the deadline passes.
+ */
+@Slf4j
+@Component
+public class VllmReadinessProbe {
+
+  private final RunPodConfig runPodConfig;
+  private final ObjectMapper objectMapper;
+  private final WebClient webClient;
+
+  public VllmReadinessProbe(RunPodConfig runPodConfig, ObjectMapper objectMapper) {
+    this.runPodConfig = runPodConfig;
+    this.objectMapper = objectMapper;
+    this.webClient = WebClient.builder().build();
+  }
+
+  /** Outcome of a successful wait: number of probes sent and the first model served. */
+  public record Result(int probes, String model) {}
+
+  /**
+   * Blocks until the server is ready or {@code deadlineNanos} (a {@link System#nanoTime()} value)
+   * is reached, in which case a {@link RuntimeException} is thrown.
+   */
+  public Result awaitReady(long deadlineNanos) throws InterruptedException {
+    RunPodConfig.Readiness readiness = runPodConfig.getReadiness();
+    String modelsUrl = runPodConfig.getVllmBaseUrl() + "/v1/models";
+    long backoffMs = readiness.getInitialBackoffMs();
+    int probes = 0;
+    while (true) {
+      probes++;
+      String model = probe(modelsUrl, readiness.getProbeTimeoutMs());
+      if (model != null) {
+        return new Result(probes, model);
+      }
+      long remainingMs = (deadlineNanos - System.nanoTime()) / 1_000_000;
+      if (remainingMs <= 0) {
+        throw new RuntimeException(
+            "vLLM server at " + modelsUrl + " not ready after " + probes + " probes");
+      }
+      Thread.sleep(Math.min(backoffMs, remainingMs));
+      backoffMs = Math.min(backoffMs * 2, readiness.getMaxBackoffMs());
+    }
+  }
+
+  /** Id of the first served model, or null while the server is not ready. */
+  private String probe(String modelsUrl, long timeoutMs) {
+    try {
+      String body =
+          webClient
+              .get()
+              .uri(modelsUrl)
+              .header("Authorization", "Bearer " + runPodConfig.getVllmApiKey())
+              .retrieve()
+              .bodyToMono(String.class)
+              .timeout(Duration.ofMillis(timeoutMs))
+              .block();
+      // Parsed here rather than by the codec, proxies in front of the pod may drop the content type
+      JsonNode data = body != null ? objectMapper.readTree(body).path("data") : null;
+      if (data == null || !data.isArray() || data.isEmpty()) {
+        log.debug("vLLM server at {} answered without models yet", modelsUrl);
+        return null;
+      }
+      boolean servesDefaultModel = false;
+      for (JsonNode model : data) {
+        servesDefaultModel |=
+            OpenAIChatCompletionRequest.DEFAULT_MODEL.equals(model.path("id").asText());
+      }
+      if (!servesDefaultModel) {
+        log.warn(
+            "vLLM server does not list {}, summary requests may fail",
+            OpenAIChatCompletionRequest.DEFAULT_MODEL);
+      }
+      return data.get(0).path("id").asText();
+    } catch (Exception e) {
+      log.debug("vLLM server at {} not ready: {}", modelsUrl, e.getMessage());
+      return null;
+    }
+  }
+}
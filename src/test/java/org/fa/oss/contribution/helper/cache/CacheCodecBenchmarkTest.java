@@ -0,0 +1,105 @@
+package org.fa.oss.contribution.helper.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Round trips every cache format and, with {@code mvn test -Dtest=CacheCodecBenchmarkTest
+ * -Dbenchmark.codecs=true}, compares their save and load times and file sizes on the issue
+ * fixtures.
+ */
+class CacheCodecBenchmarkTest {
+
+  private static final List<String> FIXTURES =
+      List.of(
+          "issues_dump_10.json", "issues_dump_50.json", "issues_dum_mini.json", "issues_dump.json");
+
+  private static final int ROUNDS = 10;
+
+  private final ObjectMapper objectMapper =
+      new ObjectMapper()
+          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+          .registerModule(new Jdk8Module())
+          .registerModule(new JavaTimeModule());
+
+  @TempDir Path baseDir;
+
+  @Test
+  void everyFormatLoadsWhateverTheCacheIsSetTo() throws IOException {
+    List<IssueDTO> issues = loadFixture("issues_dump_50.json");
+    for (CacheCodec written : CacheCodec.values()) {
+      for (boolean gzip : new boolean[] {false, true}) {
+        cache(written, gzip).save(issues);
+        for (CacheCodec configured : CacheCodec.values()) {
+          assertEquals(issues, cache(configured, false).load(), written + " gzip " + gzip);
+        }
+      }
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark.codecs", matches = "true")
+  void compareCodecs() throws IOException {
+    System.out.printf(
+        "%-22s %-12s %6s %12s %10s %10s%n",
+        "fixture", "codec", "gzip", "bytes", "save ms", "load ms");
+    for (String fixture : FIXTURES) {
+      List<IssueDTO> issues = loadFixture(fixture);
+      for (CacheCodec codec : CacheCodec.values()) {
+        for (boolean gzip : new boolean[] {false, true}) {
+          IssuesCache cache = cache(codec, gzip);
+          double saveMillis = 0;
+          double loadMillis = 0;
+          // The first round warms up the codec and is not counted
+          for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            cache.save(issues);
+            long saved = System.nanoTime();
+            // save() dropped the in-memory snapshot, so this decodes the file
+            cache.load();
+            long loaded = System.nanoTime();
+            if (round > 0) {
+              saveMillis += (saved - start) / 1e6 / ROUNDS;
+              loadMillis += (loaded - saved) / 1e6 / ROUNDS;
+            }
+          }
+          System.out.printf(
+              "%-22s %-12s %6s %12d %10.1f %10.1f%n",
+              fixture, codec, gzip, Files.size(cache.getFile().toPath()), saveMillis, loadMillis);
+        }
+      }
+    }
+  }
+
+  private IssuesCache cache(CacheCodec codec, boolean gzip) {
+    CacheProperties properties = new CacheProperties();
+    properties.setBaseDir(baseDir.toString());
+    CacheProperties.Format format = new CacheProperties.Format();
+    format.setCodec(codec);
+    format.setGzip(gzip);
+    properties.getFormats().put("issues", format);
+    return new IssuesCache(objectMapper, properties);
+  }
+
+  private List<IssueDTO> loadFixture(String name) throws IOException {
+    try (InputStream in = new ClassPathResource(name).getInputStream()) {
+      return objectMapper.readValue(in, new TypeReference<>() {});
+    }
+  }
+}
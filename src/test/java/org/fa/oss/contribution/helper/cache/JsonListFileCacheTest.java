@@ -0,0 +1,39 @@
+package org.fa.oss.contribution.helper.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JsonListFileCacheTest {
+
+  @TempDir Path baseDir;
+
+  private IssuesCache cache() {
+    CacheProperties properties = new CacheProperties();
+    properties.setBaseDir(baseDir.toString());
+    return new IssuesCache(new ObjectMapper(), properties);
+  }
+
+  @Test
+  void streamStopsParsingAtTheLimit() throws IOException {
+    // Everything after the third issue is not JSON at all
+    Files.writeString(
+        baseDir.resolve("issues.json"),
+        "[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":",
+        StandardCharsets.UTF_8);
+
+    try (Stream<IssueDTO> issues = cache().stream()) {
+      assertEquals(List.of(1L, 2L), issues.limit(2).map(IssueDTO::getId).toList());
+    }
+  }
+}
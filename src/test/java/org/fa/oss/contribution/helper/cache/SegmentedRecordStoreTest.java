@@ -0,0 +1,160 @@
+package org.fa.oss.contribution.helper.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.fa.oss.contribution.helper.config.CacheProperties;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentedRecordStoreTest {
+
+  @TempDir Path directory;
+
+  private final CacheProperties.RecordStore settings = new CacheProperties.RecordStore();
+
+  private SegmentedRecordStore<IssueDTO> open() {
+    return new SegmentedRecordStore<>(directory, new ObjectMapper(), IssueDTO.class, settings);
+  }
+
+  private static IssueDTO issue(long id, String title) {
+    return IssueDTO.builder().id(id).title(title).build();
+  }
+
+  private static Map<Long, IssueDTO> issues(int count, String title) {
+    Map<Long, IssueDTO> issues = new LinkedHashMap<>();
+    for (long id = 1; id <= count; id++) {
+      issues.put(id, issue(id, title + id));
+    }
+    return issues;
+  }
+
+  @Test
+  void replaceAllAppendsOnlyWhatChanged() throws IOException {
+    try (SegmentedRecordStore<IssueDTO> store = open()) {
+      Map<Long, IssueDTO> issues = issues(100, "title ");
+      assertEquals(100, store.replaceAll(issues));
+      long size = storeBytes();
+
+      issues.put(7L, issue(7, "retitled"));
+      issues.remove(8L);
+      assertEquals(2, store.replaceAll(issues));
+      assertTrue(storeBytes() - size < size / 20, "two records, not a rewrite");
+    }
+
+    try (SegmentedRecordStore<IssueDTO> store = open()) {
+      assertEquals(99, store.size());
+      assertEquals("retitled", store.get(7).getTitle());
+      assertNull(store.get(8));
+    }
+  }
+
+  @Test
+  void recoveryTruncatesATornAppend() throws IOException {
+    try (SegmentedRecordStore<IssueDTO> store = open()) {
+      store.put(1, issue(1, "kept"));
+      store.put(2, issue(2, "torn"));
+    }
+    Path segment = segments().get(0);
+    long whole = Files.size(segment);
+    try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(whole - 3);
+    }
+
+    try (SegmentedRecordStore<IssueDTO> store = open()) {
+      assertEquals("kept", store.get(1).getTitle());
+      assertNull(store.get(2));
+      store.put(3, issue(3, "after"));
+    }
+    try (SegmentedRecordStore<IssueDTO> store = open()) {
+      assertEquals(
+          List.of("kept", "after"), store.values().stream().map(IssueDTO::getTitle).toList());
+    }
+  }
+
+  @Test
+  void compactionKeepsOnlyTheLatestRecords() throws IOException {
+    settings.setSegmentBytes(4 * 1024);
+    try (SegmentedRecordStore<IssueDTO> store = open()) {
+      for (int round = 0; round < 5; round++) {
+        store.replaceAll(issues(50, "round " + round + " "));
+      }
+      store.delete(1);
+      long before = storeBytes();
+      store.compact();
+      assertTrue(storeBytes() < before / 3, "superseded records are gone");
+      assertEquals(49, store.size());
+    }
+
+    try (SegmentedRecordStore<IssueDTO> store = open()) {
+      assertEquals(49, store.size());
+      assertNull(store.get(1));
+      assertEquals("round 4 50", store.get(50).getTitle());
+    }
+  }
+
+  @Test
+  void deleteSurvivesACrashWhileCompactionDeletesSegments() throws IOException {
+    // The second compaction deletes two segments: the first compaction's output with the put, and
+    // the old active segment with the delete
+    for (int deletions = 0; deletions <= 2; deletions++) {
+      Path storeDirectory = directory.resolve("crash-after-" + deletions);
+      AtomicInteger deletionsLeft = new AtomicInteger(Integer.MAX_VALUE);
+      try (SegmentedRecordStore<IssueDTO> store = openCrashing(storeDirectory, deletionsLeft)) {
+        store.put(1, issue(1, "deleted"));
+        store.put(2, issue(2, "kept"));
+        store.compact();
+        store.delete(1);
+        deletionsLeft.set(deletions);
+        store.compact();
+      }
+
+      try (SegmentedRecordStore<IssueDTO> store =
+          new SegmentedRecordStore<>(
+              storeDirectory, new ObjectMapper(), IssueDTO.class, settings)) {
+        assertNull(store.get(1), "crash after " + deletions + " deletions");
+        assertEquals("kept", store.get(2).getTitle());
+      }
+    }
+  }
+
+  /** A store that stops deleting segment files once {@code deletionsLeft} runs out. */
+  private SegmentedRecordStore<IssueDTO> openCrashing(
+      Path storeDirectory, AtomicInteger deletionsLeft) {
+    return new SegmentedRecordStore<>(
+        storeDirectory, new ObjectMapper(), IssueDTO.class, settings) {
+      @Override
+      void deleteSegmentFile(Path path) throws IOException {
+        if (deletionsLeft.getAndDecrement() > 0) {
+          super.deleteSegmentFile(path);
+        }
+      }
+    };
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.sorted().toList();
+    }
+  }
+
+  private long storeBytes() throws IOException {
+    long bytes = 0;
+    for (Path segment : segments()) {
+      bytes += Files.size(segment);
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,76 @@
+package org.fa.oss.contribution.helper.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.fa.oss.contribution.helper.cache.SummaryJournal;
+import org.fa.oss.contribution.helper.cache.SummaryResultCache;
+import org.fa.oss.contribution.helper.config.SummaryProperties;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.fa.oss.contribution.helper.dto.response.LlmDispatchStatsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Compares one-issue-per-request against batched requests on a live vLLM server. Run with {@code
+ * mvn test -Dtest=BatchedSummaryBenchmarkTest -Dbenchmark.vllm.url=http://host:8000
+ * -Dbenchmark.vllm.api-key=...}; optionally {@code -Dbenchmark.fixture=issues_dump_10.json}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.vllm.url", matches = ".+")
+@SpringBootTest(
+    properties = {
+      "contribution.scheduler.enabled=false",
+      "runpod.vllm-base-url=${benchmark.vllm.url}",
+      "runpod.vllm-api-key=${benchmark.vllm.api-key:}",
+      "cache.base-dir=${java.io.tmpdir}/oss-captain-benchmark/${random.uuid}",
+      "summary.incremental=false"
+    })
+class BatchedSummaryBenchmarkTest {
+
+  @Autowired private SummaryService summaryService;
+  @Autowired private SummaryProperties summaryProperties;
+  @Autowired private LlmDispatcher llmDispatcher;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private SummaryResultCache summaryResultCache;
+  @Autowired private SummaryJournal summaryJournal;
+
+  @Test
+  void compareSingleAndBatchedRequests() throws IOException {
+    List<IssueDTO> issues =
+        loadFixture(System.getProperty("benchmark.fixture", "issues_dump_50.json"));
+
+    summaryProperties.getBatch().setEnabled(false);
+    long singleCount = summaryService.generateSummary(issues).getCount();
+    LlmDispatchStatsDTO single = llmDispatcher.getLastStats();
+
+    // Otherwise the single-issue fallbacks of the batched run would be served from the cache
+    summaryResultCache.clear();
+    summaryJournal.reset();
+    summaryProperties.getBatch().setEnabled(true);
+    long batchedCount = summaryService.generateSummary(issues).getCount();
+    LlmDispatchStatsDTO batched = llmDispatcher.getLastStats();
+
+    System.out.printf(
+        "%-10s %8s %10s %10s %12s %10s%n",
+        "mode", "issues", "requests", "wall ms", "tokens/s", "summaries");
+    print("single", issues.size(), single, singleCount);
+    print("batched", issues.size(), batched, batchedCount);
+  }
+
+  private void print(String mode, int issues, LlmDispatchStatsDTO stats, long summaries) {
+    System.out.printf(
+        "%-10s %8d %10d %10d %12.1f %10d%n",
+        mode, issues, stats.requests(), stats.elapsedMillis(), stats.tokensPerSecond(), summaries);
+  }
+
+  private List<IssueDTO> loadFixture(String name) throws IOException {
+    try (InputStream in = new ClassPathResource(name).getInputStream()) {
+      return objectMapper.readValue(in, new TypeReference<>() {});
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package org.fa.oss.contribution.helper.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.fa.oss.contribution.helper.service.GitHubRequestScheduler.Bucket;
+import org.fa.oss.contribution.helper.service.GitHubRequestScheduler.Priority;
+import org.junit.jupiter.api.Test;
+
+class GitHubRequestSchedulerTest {
+
+  private final GitHubRequestScheduler scheduler = new GitHubRequestScheduler(new GithubConfig());
+
+  @Test
+  void unpacedWhileMostOfTheLimitIsLeft() throws Exception {
+    report(Bucket.CORE, 200, 5000, 4000, 3600, null);
+    long start = System.nanoTime();
+
+    for (int i = 0; i < 200; i++) {
+      scheduler.acquire(Bucket.CORE);
+    }
+
+    assertTrue(millisSince(start) < 500);
+    assertEquals(3800, scheduler.getRemaining(Bucket.CORE));
+  }
+
+  @Test
+  void spreadsTheLastRequestsUntilTheReset() throws Exception {
+    // Below the pacing threshold with 2 of 10 kept in reserve: 8 slots until the reset
+    report(Bucket.SEARCH, 200, 100, 10, 2, null);
+    long start = System.nanoTime();
+
+    for (int i = 0; i < 4; i++) {
+      scheduler.acquire(Bucket.SEARCH);
+    }
+
+    assertTrue(millisSince(start) >= 300);
+    assertEquals(4, scheduler.getStats().get(Bucket.SEARCH.ordinal()).requests());
+  }
+
+  @Test
+  void reserveIsKeptForHighPriority() throws Exception {
+    report(Bucket.CORE, 200, 100, 2, 60, null);
+    CountDownLatch acquired = new CountDownLatch(1);
+    Thread normal =
+        new Thread(
+            () -> {
+              try {
+                scheduler.acquire(Bucket.CORE);
+                acquired.countDown();
+              } catch (InterruptedIOException e) {
+                // Expected once the test is over
+              }
+            });
+    normal.start();
+
+    long start = System.nanoTime();
+    try (GitHubRequestScheduler.Scope scope = scheduler.prioritize(Priority.HIGH)) {
+      scheduler.acquire(Bucket.CORE);
+    }
+
+    assertTrue(millisSince(start) < 500);
+    assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+    normal.interrupt();
+  }
+
+  @Test
+  void retryAfterPausesTheBucket() throws Exception {
+    report(Bucket.CORE, 403, 5000, 4000, 3600, "1");
+    long start = System.nanoTime();
+
+    scheduler.acquire(Bucket.CORE);
+
+    assertTrue(millisSince(start) >= 900);
+    assertEquals(1, scheduler.getStats().get(Bucket.CORE.ordinal()).throttled());
+  }
+
+  private void report(
+      Bucket bucket, int status, int limit, int remaining, int resetInSeconds, String retryAfter) {
+    long reset = System.currentTimeMillis() / 1000 + resetInSeconds;
+    Map<String, String> headers = retryAfter == null ? Map.of() : Map.of("Retry-After", retryAfter);
+    scheduler.update(
+        bucket,
+        status,
+        name ->
+            switch (name) {
+              case "X-RateLimit-Limit" -> String.valueOf(limit);
+              case "X-RateLimit-Remaining" -> String.valueOf(remaining);
+              case "X-RateLimit-Reset" -> String.valueOf(reset);
+              default -> headers.get(name);
+            });
+  }
+
+  private static long millisSince(long startNanos) {
+    return (System.nanoTime() - startNanos) / 1_000_000;
+  }
+}
@@ -0,0 +1,225 @@
+package org.fa.oss.contribution.helper.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.fa.oss.contribution.helper.config.JsonConfig;
+import org.fa.oss.contribution.helper.dto.response.IssueDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Runs the GraphQL engine against a local stand-in for the GitHub GraphQL API that serves the
+ * issues of a fixture as paginated search results, with comment pages for long threads. Fixture
+ * issue {@code i} was created {@code i} days after {@link #CREATED_START}.
+ */
+class GraphQLIngestionServiceTest {
+
+  private static final int PAGE_SIZE = 20;
+  private static final int COMMENTS_PER_ISSUE = 5;
+  private static final Instant CREATED_START = Instant.parse("2024-01-01T00:00:00Z");
+  private static final Pattern CREATED = Pattern.compile("created:(\\S+)\\.\\.(\\S+)");
+
+  private final ObjectMapper mapper = new JsonConfig().objectMapper();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger searches = new AtomicInteger();
+
+  // Matches reported per fixture issue, to make a window look larger than one search returns
+  private int reportedPerIssue = 1;
+
+  private HttpServer server;
+  private List<IssueDTO> fixture;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    try (InputStream in = new ClassPathResource("issues_dump_50.json").getInputStream()) {
+      fixture = mapper.readValue(in, new TypeReference<List<IssueDTO>>() {});
+    }
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/graphql", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void splitsWindowsAboveTheResultCap() {
+    // Windows with more than 10 fixture issues look like more than 1000 matches
+    reportedPerIssue = 100;
+
+    List<IssueDTO> issues = newService().fetchGoodFirstIssues();
+
+    assertEquals(fixture.size(), issues.size());
+    for (int i = 0; i < fixture.size(); i++) {
+      assertEquals(i + 1, issues.get(i).getId());
+    }
+    assertTrue(searches.get() > 1, "the harvest was split into windows");
+  }
+
+  @Test
+  void producesSameIssuesAsFixture() {
+    List<IssueDTO> issues = newService().fetchGoodFirstIssues();
+
+    assertEquals(fixture.size(), issues.size());
+    int expectedRequests = (fixture.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+    for (int i = 0; i < fixture.size(); i++) {
+      IssueDTO issue = issues.get(i);
+      assertEquals(i + 1, issue.getId());
+      assertNotNull(issue.getRepository());
+      assertEquals(issue.getRepositoryName(), issue.getRepository().getFullName());
+      assertEquals(stars(issue.getRepositoryName()), issue.getRepository().getStargazersCount());
+      assertEquals(fixture.get(i), issue.toBuilder().id(0).repository(null).build());
+
+      int comments = fixture.get(i).getComments().size();
+      if (comments > COMMENTS_PER_ISSUE) {
+        expectedRequests += (comments - COMMENTS_PER_ISSUE + 99) / 100;
+      }
+    }
+    assertEquals(expectedRequests, requests.get());
+  }
+
+  private GraphQLIngestionService newService() {
+    GithubConfig config = new GithubConfig();
+    config.setToken("test-token");
+    config
+        .getIngestion()
+        .setGraphqlUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/graphql");
+    config.getIngestion().setGraphqlPageSize(PAGE_SIZE);
+    config.getIngestion().setGraphqlCommentsPerIssue(COMMENTS_PER_ISSUE);
+    return new GraphQLIngestionService(config, mapper, new GitHubRequestScheduler(config));
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    JsonNode request = mapper.readTree(exchange.getRequestBody());
+    JsonNode variables = request.path("variables");
+    ObjectNode data = mapper.createObjectNode();
+    if (request.path("query").asText().contains("search(")) {
+      List<Integer> matches = matches(variables.path("query").asText());
+      int from = variables.path("after").isNull() ? 0 : variables.path("after").asInt();
+      if (from == 0) {
+        searches.incrementAndGet();
+      }
+      int to = Math.min(matches.size(), from + variables.path("first").asInt());
+      ObjectNode search = data.putObject("search");
+      search.put("issueCount", matches.size() * reportedPerIssue);
+      search.set("pageInfo", pageInfo(to < matches.size(), to));
+      ArrayNode nodes = search.putArray("nodes");
+      for (int i = from; i < to; i++) {
+        nodes.add(issueNode(matches.get(i), variables.path("comments").asInt()));
+      }
+      data.putObject("rateLimit").put("cost", 1).put("remaining", 4999);
+    } else {
+      int index = Integer.parseInt(variables.path("id").asText().substring(2));
+      int after = variables.path("after").asInt();
+      data.putObject("node")
+          .set("comments", comments(index, after, variables.path("first").asInt()));
+    }
+    byte[] body = mapper.writeValueAsBytes(mapper.createObjectNode().set("data", data));
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /** Fixture indexes of the issues created in the query's {@code created:} window, if any. */
+  private List<Integer> matches(String query) {
+    Matcher created = CREATED.matcher(query);
+    if (!created.find()) {
+      return IntStream.range(0, fixture.size()).boxed().toList();
+    }
+    Instant from = Instant.parse(created.group(1));
+    Instant to = Instant.parse(created.group(2));
+    return IntStream.range(0, fixture.size())
+        .filter(
+            i -> {
+              Instant createdAt = CREATED_START.plus(Duration.ofDays(i));
+              return !createdAt.isBefore(from) && !createdAt.isAfter(to);
+            })
+        .boxed()
+        .toList();
+  }
+
+  private ObjectNode issueNode(int index, int firstComments) {
+    IssueDTO issue = fixture.get(index);
+    ObjectNode node = mapper.createObjectNode();
+    node.put("id", "I_" + index);
+    node.put("databaseId", index + 1);
+    node.put("title", issue.getTitle());
+    node.put("url", issue.getUrl());
+    node.put("body", issue.getDescription());
+    node.put("updatedAt", issue.getUpdatedAt() != null ? issue.getUpdatedAt().toString() : null);
+    node.put("state", issue.getState());
+    node.putObject("author")
+        .put("login", issue.getUser())
+        .put("url", issue.getUserHtmlUrl())
+        .put("avatarUrl", issue.getUserAvatarUrl());
+    ArrayNode labels = node.putObject("labels").putArray("nodes");
+    issue.getLabels().forEach(label -> labels.addObject().put("name", label));
+    node.set("comments", comments(index, 0, firstComments));
+
+    String[] name = issue.getRepositoryName().split("/");
+    ObjectNode repository = node.putObject("repository");
+    repository.put("name", name[1]);
+    repository.put("nameWithOwner", issue.getRepositoryName());
+    repository.put("url", "https://github.com/" + issue.getRepositoryName());
+    repository.put("stargazerCount", stars(issue.getRepositoryName()));
+    repository.put("forkCount", 20);
+    repository.putObject("owner").put("login", name[0]);
+    repository
+        .putObject("languages")
+        .putArray("edges")
+        .addObject()
+        .put("size", 1000)
+        .putObject("node")
+        .put("name", "Java");
+    return node;
+  }
+
+  private ObjectNode comments(int index, int from, int first) {
+    List<String> comments = fixture.get(index).getComments();
+    int to = Math.min(comments.size(), from + first);
+    ObjectNode connection = mapper.createObjectNode();
+    connection.set("pageInfo", pageInfo(to < comments.size(), to));
+    ArrayNode nodes = connection.putArray("nodes");
+    comments.subList(from, to).forEach(comment -> nodes.addObject().put("body", comment));
+    return connection;
+  }
+
+  private ObjectNode pageInfo(boolean hasNextPage, int endCursor) {
+    ObjectNode pageInfo = mapper.createObjectNode();
+    pageInfo.put("hasNextPage", hasNextPage);
+    pageInfo.put("endCursor", String.valueOf(endCursor));
+    return pageInfo;
+  }
+
+  private static int stars(String repositoryName) {
+    return 100 + Math.abs(repositoryName.hashCode() % 1000);
+  }
+}
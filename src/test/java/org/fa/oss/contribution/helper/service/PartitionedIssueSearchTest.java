@@ -0,0 +1,154 @@
+package org.fa.oss.contribution.helper.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.fa.oss.contribution.helper.config.GithubConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GHIssue;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+
+/**
+ * Runs the partitioned search against a local stand-in for the GitHub search API that, like GitHub,
+ * refuses to page past the first 1000 results of a query.
+ */
+class PartitionedIssueSearchTest {
+
+  private static final int ISSUES = 3500;
+  private static final Instant START = Instant.parse("2008-01-01T00:00:00Z");
+  private static final Pattern CREATED = Pattern.compile("created:(\\S+)\\.\\.(\\S+)");
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final List<Instant> created = new ArrayList<>();
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private HttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    // Most issues are recent, as on GitHub
+    Random random = new Random(42);
+    long span = Instant.now().getEpochSecond() - START.getEpochSecond();
+    for (int i = 0; i < ISSUES; i++) {
+      created.add(START.plusSeconds((long) (span * Math.pow(random.nextDouble(), 0.2))));
+    }
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/search/issues", this::handle);
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void findsEveryIssueBeyondTheResultCap() throws IOException {
+    GithubConfig config = new GithubConfig();
+    GitHubRequestScheduler scheduler = new GitHubRequestScheduler(config);
+    GitHub github =
+        new GitHubBuilder()
+            .withEndpoint("http://127.0.0.1:" + server.getAddress().getPort())
+            .withConnector(scheduler.connector())
+            .build();
+    PartitionedIssueSearch search =
+        new PartitionedIssueSearch(new GitHubIoExecutor(config, scheduler), scheduler, config);
+
+    List<GHIssue> issues = search.search(github, "label:\"good first issue\"");
+
+    assertEquals(ISSUES, issues.size());
+    assertEquals(ISSUES, issues.stream().map(GHIssue::getId).distinct().count());
+    // Pages of every window plus one first page per split window
+    assertTrue(requests.get() < ISSUES / 100 + 40, "requests: " + requests.get());
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    Map<String, String> params = new HashMap<>();
+    for (String pair : exchange.getRequestURI().getRawQuery().split("&")) {
+      String[] parts = pair.split("=", 2);
+      params.put(parts[0], URLDecoder.decode(parts[1], StandardCharsets.UTF_8));
+    }
+    Matcher range = CREATED.matcher(params.get("q"));
+    Instant from = range.find() ? Instant.parse(range.group(1)) : Instant.MIN;
+    Instant to = range.group(2) != null ? Instant.parse(range.group(2)) : Instant.MAX;
+    List<Integer> matching = new ArrayList<>();
+    for (int i = 0; i < created.size(); i++) {
+      if (!created.get(i).isBefore(from) && !created.get(i).isAfter(to)) {
+        matching.add(i);
+      }
+    }
+    int perPage = Integer.parseInt(params.getOrDefault("per_page", "30"));
+    int page = Integer.parseInt(params.getOrDefault("page", "1"));
+    int first = (page - 1) * perPage;
+    if (first + perPage > 1000) {
+      respond(exchange, 422, mapper.createObjectNode().put("message", "Only the first 1000"));
+      return;
+    }
+
+    ObjectNode body = mapper.createObjectNode();
+    body.put("total_count", matching.size());
+    body.put("incomplete_results", false);
+    ArrayNode items = body.putArray("items");
+    for (int i = first; i < Math.min(matching.size(), first + perPage); i++) {
+      int index = matching.get(i);
+      items
+          .addObject()
+          .put("id", index + 1)
+          .put("number", index + 1)
+          .put("title", "Issue " + index)
+          .put("state", "open")
+          .put("created_at", created.get(index).toString())
+          .put("updated_at", created.get(index).toString());
+    }
+    if (first + perPage < Math.min(matching.size(), 1000)) {
+      StringBuilder next =
+          new StringBuilder(
+              "http://127.0.0.1:" + server.getAddress().getPort() + "/search/issues?");
+      for (String pair : exchange.getRequestURI().getRawQuery().split("&")) {
+        if (!pair.startsWith("page=")) {
+          next.append(pair).append('&');
+        }
+      }
+      next.append("page=").append(page + 1);
+      exchange.getResponseHeaders().add("Link", "<" + next + ">; rel=\"next\"");
+    }
+    respond(exchange, 200, body);
+  }
+
+  private void respond(HttpExchange exchange, int status, ObjectNode body) throws IOException {
+    byte[] bytes = mapper.writeValueAsBytes(body);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.getResponseHeaders().add("X-RateLimit-Limit", "100000");
+    exchange.getResponseHeaders().add("X-RateLimit-Remaining", "99999");
+    exchange
+        .getResponseHeaders()
+        .add("X-RateLimit-Reset", String.valueOf(Instant.now().getEpochSecond() + 60));
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package org.fa.oss.contribution.helper.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fa.oss.contribution.helper.config.RunPodConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Runs the probe against a local stand-in for the vLLM server that boots after a few requests. */
+class VllmReadinessProbeTest {
+
+  private static final String MODELS =
+      "{\"object\":\"list\",\"data\":[{\"id\":\"meta-llama/Meta-Llama-3-8B-Instruct\"}]}";
+
+  private HttpServer server;
+  private final AtomicInteger requests = new AtomicInteger();
+  private volatile int failingRequests;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(
+        "/v1/models",
+        exchange -> {
+          boolean ready = requests.incrementAndGet() > failingRequests;
+          byte[] body = (ready ? MODELS : "loading").getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(ready ? 200 : 503, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        });
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void readyAsSoonAsModelIsServed() throws InterruptedException {
+    failingRequests = 3;
+    long start = System.nanoTime();
+
+    VllmReadinessProbe.Result result = probe(10, 40).awaitReady(System.nanoTime() + 5_000_000_000L);
+
+    assertEquals(4, result.probes());
+    assertEquals("meta-llama/Meta-Llama-3-8B-Instruct", result.model());
+    // 10 + 20 + 40 ms of backoff, far below the deadline
+    assertTrue((System.nanoTime() - start) / 1_000_000 < 2_000);
+  }
+
+  @Test
+  void failsAtDeadline() throws InterruptedException {
+    VllmReadinessProbe probe = probe(10, 20);
+    // The first request of a fresh client is slow, keep it out of the measured window
+    probe.awaitReady(System.nanoTime() + 5_000_000_000L);
+    failingRequests = Integer.MAX_VALUE;
+    requests.set(0);
+
+    assertThrows(RuntimeException.class, () -> probe.awaitReady(System.nanoTime() + 500_000_000L));
+    assertTrue(requests.get() > 1);
+  }
+
+  private VllmReadinessProbe probe(long initialBackoffMs, long maxBackoffMs) {
+    RunPodConfig config = new RunPodConfig();
+    config.setVllmBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+    config.getReadiness().setInitialBackoffMs(initialBackoffMs);
+    config.getReadiness().setMaxBackoffMs(maxBackoffMs);
+    config.getReadiness().setProbeTimeoutMs(1000);
+    return new VllmReadinessProbe(config, new ObjectMapper());
+  }
+}